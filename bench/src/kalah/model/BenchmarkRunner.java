@@ -0,0 +1,111 @@
+package kalah.model;
+
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+
+/**
+ * Measures the throughput and the allocation rate of a single operation.
+ * The operation is first run for the warmup time, so the JIT compiler can
+ * optimize it, and then counted for the measurement time. Calls are grouped
+ * into batches that take about a millisecond, so reading the clock does not
+ * distort fast operations.
+ */
+public class BenchmarkRunner {
+
+    /**
+     * An operation to measure. It is called with increasing numbers, which
+     * can be used to cycle through prepared inputs.
+     */
+    public interface Operation {
+
+        /**
+         * Runs the operation once.
+         *
+         * @param invocation The number of the call.
+         * @return Any result, so the JIT compiler cannot drop the call.
+         * @throws InterruptedException If the thread was interrupted.
+         */
+        long run(long invocation) throws InterruptedException;
+    }
+
+    private static final long NANOS_PER_MILLI = 1_000_000;
+    private static final long BATCH_NANOS = NANOS_PER_MILLI;
+    private static volatile long sink;
+
+    private final long warmupNanos;
+    private final long measureNanos;
+    private final com.sun.management.ThreadMXBean threads;
+
+    /**
+     * Creates a runner with the given times per benchmark.
+     *
+     * @param warmupMillis The warmup time in milliseconds.
+     * @param measureMillis The measurement time in milliseconds.
+     */
+    public BenchmarkRunner(long warmupMillis, long measureMillis) {
+        this.warmupNanos = warmupMillis * NANOS_PER_MILLI;
+        this.measureNanos = measureMillis * NANOS_PER_MILLI;
+        threads = (com.sun.management.ThreadMXBean)
+                ManagementFactory.getThreadMXBean();
+    }
+
+    /**
+     * Prints the header of the result table.
+     */
+    public static void printHeader() {
+        System.out.printf(Locale.ROOT, "%-20s %5s %5s %5s %15s %12s %10s%n",
+                "Benchmark", "Pits", "Seeds", "Level", "ops/s", "B/op",
+                "MB/s");
+    }
+
+    /**
+     * Measures an operation and prints a line of the result table.
+     *
+     * @param name The name of the benchmark.
+     * @param pits The number of pits per player of the boards.
+     * @param seeds The number of seeds per pit of the boards.
+     * @param level The level of the boards or 0 if it does not matter.
+     * @param operation The operation to measure.
+     * @throws InterruptedException If the thread was interrupted.
+     */
+    public void run(String name, int pits, int seeds, int level,
+                    Operation operation) throws InterruptedException {
+        long invocation = 0;
+        int batch = 1;
+        long start = System.nanoTime();
+        while (System.nanoTime() - start < warmupNanos) {
+            long batchStart = System.nanoTime();
+            invocation = runBatch(operation, invocation, batch);
+            if (System.nanoTime() - batchStart < BATCH_NANOS) {
+                batch *= 2;
+            }
+        }
+        long threadId = Thread.currentThread().getId();
+        long operations = 0;
+        long allocated = threads.getThreadAllocatedBytes(threadId);
+        start = System.nanoTime();
+        long elapsed;
+        do {
+            invocation = runBatch(operation, invocation, batch);
+            operations += batch;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < measureNanos);
+        allocated = threads.getThreadAllocatedBytes(threadId) - allocated;
+        double seconds = elapsed / 1e9;
+        System.out.printf(Locale.ROOT,
+                "%-20s %5d %5d %5s %15.1f %12.1f %10.1f%n", name, pits, seeds,
+                level == 0 ? "-" : String.valueOf(level),
+                operations / seconds, (double) allocated / operations,
+                allocated / seconds / (1 << 20));
+    }
+
+    private long runBatch(Operation operation, long invocation, int batch)
+            throws InterruptedException {
+        long result = 0;
+        for (int k = 0; k < batch; k++) {
+            result += operation.run(invocation++);
+        }
+        sink = result;
+        return invocation;
+    }
+}
@@ -0,0 +1,226 @@
+package kalah.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Benchmarks of the move generation, the evaluation and the search of
+ * {@link GameBoard}. Each benchmark cycles through positions of the middle
+ * game, created by random moves from the initial board.
+ *
+ * Usage: {@code KalahBenchmarks [--benchmarks=move,machineMoveOnBoard,...]
+ * [--pits=1-12] [--seeds=1,3,12] [--levels=1-10] [--engine=alphabeta]
+ * [--warmup=500] [--time=1000]}. Lists are separated by commas and may
+ * contain ranges.
+ */
+public final class KalahBenchmarks {
+    private static final int POSITIONS = 64;
+    private static final long RANDOM_SEED = 42;
+
+    private KalahBenchmarks() {
+        throw new UnsupportedOperationException("Illegal call of utility "
+                + "class constructor.");
+    }
+
+    /**
+     * Runs the benchmarks.
+     *
+     * @param args Command line arguments as described above.
+     * @throws InterruptedException If the thread was interrupted.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        String benchmarks = "move,machineMoveOnBoard,applyUndo,evaluate,"
+                + "machineMove";
+        String pits = "1,6," + Board.MAX_PITS_PER_PLAYER;
+        String seeds = "1,3," + Board.MAX_SEEDS_PER_PIT;
+        String levels = "1-" + Board.MAX_LEVEL;
+        String engine = "alphabeta";
+        long warmup = 500;
+        long time = 1000;
+        for (String arg : args) {
+            String value = arg.substring(arg.indexOf('=') + 1);
+            if (arg.startsWith("--benchmarks=")) {
+                benchmarks = value;
+            } else if (arg.startsWith("--pits=")) {
+                pits = value;
+            } else if (arg.startsWith("--seeds=")) {
+                seeds = value;
+            } else if (arg.startsWith("--levels=")) {
+                levels = value;
+            } else if (arg.startsWith("--engine=")) {
+                engine = value;
+            } else if (arg.startsWith("--warmup=")) {
+                warmup = Long.parseLong(value);
+            } else if (arg.startsWith("--time=")) {
+                time = Long.parseLong(value);
+            } else {
+                throw new IllegalArgumentException("Unknown option " + arg);
+            }
+        }
+        BenchmarkRunner runner = new BenchmarkRunner(warmup, time);
+        BenchmarkRunner.printHeader();
+        for (String benchmark : benchmarks.split(",")) {
+            for (int p : parseList(pits, 1, Board.MAX_PITS_PER_PLAYER)) {
+                for (int s : parseList(seeds, 1, Board.MAX_SEEDS_PER_PIT)) {
+                    if (benchmark.equals("machineMove")) {
+                        for (int l : parseList(levels, 1, Board.MAX_LEVEL)) {
+                            runSearch(runner, p, s, l, engine);
+                        }
+                    } else {
+                        runMoves(runner, benchmark, p, s);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void runMoves(BenchmarkRunner runner, String benchmark,
+                                 int pits, int seeds)
+            throws InterruptedException {
+        switch (benchmark) {
+        case "move":
+            GameBoard[] human = positions(pits, seeds, Player.HUMAN);
+            int[] humanPits = firstPits(human);
+            runner.run(benchmark, pits, seeds, 0, n -> {
+                int k = (int) (n % POSITIONS);
+                Board board = human[k].clone().move(humanPits[k]);
+                return board.targetPitOfLastMove();
+            });
+            break;
+        case "machineMoveOnBoard":
+            GameBoard[] machine = positions(pits, seeds, Player.MACHINE);
+            int[] machinePits = firstPits(machine);
+            for (int k = 0; k < POSITIONS; k++) {
+                int pit = machinePits[k] + pits + 1;
+                machine[k].setEngine((board, level) -> pit);
+            }
+            runner.run(benchmark, pits, seeds, 0, n -> {
+                Board board = machine[(int) (n % POSITIONS)].clone()
+                        .machineMove();
+                return board.targetPitOfLastMove();
+            });
+            break;
+        case "applyUndo":
+            GameBoard[] both = positions(pits, seeds, null);
+            int[] bothPits = firstPits(both);
+            runner.run(benchmark, pits, seeds, 0, n -> {
+                int k = (int) (n % POSITIONS);
+                long move = both[k].applyMove(bothPits[k]);
+                both[k].undoMove(move);
+                return move;
+            });
+            break;
+        case "evaluate":
+            GameBoard[] any = positions(pits, seeds, null);
+            runner.run(benchmark, pits, seeds, 0, n -> Double.doubleToLongBits(
+                    any[(int) (n % POSITIONS)].evaluate(1)));
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown benchmark "
+                    + benchmark);
+        }
+    }
+
+    private static void runSearch(BenchmarkRunner runner, int pits,
+                                  int seeds, int level, String name)
+            throws InterruptedException {
+        GameBoard[] machine = positions(pits, seeds, Player.MACHINE);
+        Engine engine;
+        TranspositionTable table = null;
+        if (name.equals("alphabeta")) {
+            table = new TranspositionTable();
+            engine = new AlphaBetaEngine(table);
+        } else if (name.equals("minimax")) {
+            engine = new MinimaxEngine();
+        } else if (name.equals("tree")) {
+            NodePool pool = new NodePool(1 << 16);
+            engine = (board, l) -> pool.getPit(pool.bestChild(
+                    pool.build(board, l))) + pits + 1;
+        } else {
+            throw new IllegalArgumentException("Unknown engine " + name);
+        }
+        for (GameBoard board : machine) {
+            board.setEngine(engine);
+            board.setLevel(level);
+        }
+        TranspositionTable searchTable = table;
+        runner.run("machineMove", pits, seeds, level, n -> {
+            if (searchTable != null) {
+                // Every search starts from scratch.
+                searchTable.clear();
+            }
+            Board board = machine[(int) (n % POSITIONS)].clone().machineMove();
+            return board.sourcePitOfLastMove();
+        });
+    }
+
+    /**
+     * Creates positions by random moves from the initial board. The game is
+     * not over on any of them.
+     *
+     * @param pits The number of pits per player.
+     * @param seeds The number of seeds per pit.
+     * @param player The player who has to move or {@code null} for any.
+     * @return The positions.
+     */
+    private static GameBoard[] positions(int pits, int seeds, Player player) {
+        Random random = new Random(RANDOM_SEED);
+        List<GameBoard> positions = new ArrayList<>();
+        while (positions.size() < POSITIONS) {
+            GameBoard board = new GameBoard(pits, seeds, random.nextBoolean()
+                    ? Player.HUMAN : Player.MACHINE, 1);
+            int plies = random.nextInt(2 * pits + 1);
+            for (int k = 0; k < plies && !board.isGameOver(); k++) {
+                int[] moves = legalMoves(board);
+                board.applyMove(moves[random.nextInt(moves.length)]);
+            }
+            if (!board.isGameOver() && (player == null
+                    || board.getCurrentPlayer() == player)) {
+                positions.add(board);
+            }
+        }
+        return positions.toArray(new GameBoard[0]);
+    }
+
+    private static int[] firstPits(GameBoard[] positions) {
+        int[] pits = new int[positions.length];
+        for (int k = 0; k < positions.length; k++) {
+            pits[k] = legalMoves(positions[k])[0];
+        }
+        return pits;
+    }
+
+    private static int[] legalMoves(GameBoard board) {
+        int[] moves = new int[board.getPitsPerPlayer()];
+        return Arrays.copyOf(moves,
+                AlphaBetaEngine.orderMoves(board, moves, -1));
+    }
+
+    /**
+     * Parses a list like {@code 1,3,6-8}.
+     *
+     * @param list The list to parse.
+     * @param min The minimum allowed number.
+     * @param max The maximum allowed number.
+     * @return The numbers of the list.
+     */
+    static List<Integer> parseList(String list, int min, int max) {
+        List<Integer> numbers = new ArrayList<>();
+        for (String part : list.split(",")) {
+            int dash = part.indexOf('-');
+            int from = Integer.parseInt(dash < 0 ? part
+                    : part.substring(0, dash));
+            int to = dash < 0 ? from : Integer.parseInt(part.substring(
+                    dash + 1));
+            if (from < min || to > max || from > to) {
+                throw new IllegalArgumentException("Invalid range " + part);
+            }
+            for (int n = from; n <= to; n++) {
+                numbers.add(n);
+            }
+        }
+        return numbers;
+    }
+}
@@ -0,0 +1,128 @@
+package kalah.model;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Builds an {@link OpeningBook} by deep searches of the opening positions of
+ * the game configurations offered by the view.
+ *
+ * Starting from the initial boards with either player opening, all human
+ * moves are followed. For every position with the machine to move, the
+ * machine move is searched and only this move is followed further, until
+ * the machine has made the given number of moves.
+ *
+ * Options: {@code --pits=} and {@code --seeds=} lists like {@code 1,3,6-8},
+ * by default all offered ones, {@code --moves=M} the number of machine moves
+ * per game in the book (default 2), {@code --level=L} the search depth
+ * (default {@link Board#MAX_LEVEL}), which is stored with the moves since
+ * the book only answers searches at this level, and {@code --file=F} the
+ * file to write (default {@code kalah.book}).
+ */
+public final class OpeningBookBuilder {
+    private final MappedTable.Builder table = new MappedTable.Builder(
+            OpeningBook.VALUE_BYTES, OpeningBook.TAG);
+    private final Map<Long, Integer> bookPits = new HashMap<>();
+    private final Map<Long, Integer> expanded = new HashMap<>();
+    private final AlphaBetaEngine engine = new AlphaBetaEngine();
+    private final int level;
+
+    private OpeningBookBuilder(int level) {
+        this.level = level;
+    }
+
+    /**
+     * Runs the builder.
+     *
+     * @param args Command line arguments as described above.
+     * @throws IOException If the book cannot be written.
+     * @throws InterruptedException If the thread was interrupted.
+     */
+    public static void main(String[] args) throws IOException,
+            InterruptedException {
+        String pits = "1-" + Board.MAX_PITS_PER_PLAYER;
+        String seeds = "1-" + Board.MAX_SEEDS_PER_PIT;
+        int moves = 2;
+        int level = Board.MAX_LEVEL;
+        String file = "kalah.book";
+        for (String arg : args) {
+            String value = arg.substring(arg.indexOf('=') + 1);
+            if (arg.startsWith("--pits=")) {
+                pits = value;
+            } else if (arg.startsWith("--seeds=")) {
+                seeds = value;
+            } else if (arg.startsWith("--moves=")) {
+                moves = Integer.parseInt(value);
+            } else if (arg.startsWith("--level=")) {
+                level = Integer.parseInt(value);
+            } else if (arg.startsWith("--file=")) {
+                file = value;
+            } else {
+                throw new IllegalArgumentException("Unknown option " + arg);
+            }
+        }
+        if (level < 1 || level > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid level " + level);
+        }
+        OpeningBookBuilder builder = new OpeningBookBuilder(level);
+        for (int p : KalahBenchmarks.parseList(pits, 1,
+                Board.MAX_PITS_PER_PLAYER)) {
+            for (int s : KalahBenchmarks.parseList(seeds, 1,
+                    Board.MAX_SEEDS_PER_PIT)) {
+                long start = System.nanoTime();
+                int before = builder.table.size();
+                for (Player opener : Player.values()) {
+                    builder.expand(new GameBoard(p, s, opener, level), moves);
+                }
+                System.out.printf(Locale.ROOT, "pits=%d seeds=%d positions=%d"
+                        + " %.1f s%n", p, s, builder.table.size() - before,
+                        (System.nanoTime() - start) / 1e9);
+            }
+        }
+        builder.table.write(Paths.get(file));
+        System.out.printf(Locale.ROOT, "%d positions written to %s%n",
+                builder.table.size(), file);
+    }
+
+    /**
+     * Adds the machine moves of all positions reachable from a board.
+     *
+     * @param board The board to start from. It is not changed.
+     * @param moves The number of machine moves still to add.
+     * @throws InterruptedException If the thread was interrupted.
+     */
+    private void expand(GameBoard board, int moves)
+            throws InterruptedException {
+        if (board.isGameOver()) {
+            return;
+        }
+        int pitsPerPlayer = board.getPitsPerPlayer();
+        if (board.getCurrentPlayer() == Player.MACHINE) {
+            long key = board.getPositionKey();
+            if (moves <= expanded.getOrDefault(key, 0)) {
+                return;
+            }
+            expanded.put(key, moves);
+            Integer pit = bookPits.get(key);
+            if (pit == null) {
+                pit = engine.selectPit(board, level) - pitsPerPlayer - 1;
+                bookPits.put(key, pit);
+                table.put(key, new byte[] {pit.byteValue(), (byte) level});
+            }
+            GameBoard child = (GameBoard) board.clone();
+            child.applyMove(pit);
+            expand(child, moves - 1);
+        } else {
+            for (int i = 0; i < pitsPerPlayer; i++) {
+                if (board.getSeeds(i) > 0) {
+                    GameBoard child = (GameBoard) board.clone();
+                    child.applyMove(i);
+                    expand(child, moves);
+                }
+            }
+        }
+    }
+}
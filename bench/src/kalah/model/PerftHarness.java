@@ -0,0 +1,112 @@
+package kalah.model;
+
+import java.util.Locale;
+
+/**
+ * Checks the move generation against known perft counts and measures its
+ * speed in counted positions per second.
+ *
+ * Without arguments, all fixtures are verified, both on {@link GameBoard}
+ * and on {@link PackedPosition} where the board can be packed. The process
+ * exits with status 1 if any count differs. With {@code --pits=P --seeds=S
+ * --depth=D}, the counts per move of the initial board of that configuration
+ * are printed instead.
+ */
+public final class PerftHarness {
+
+    /**
+     * Known counts for the initial boards with the human opening. Each row
+     * holds the pits per player, the seeds per pit and the counts for the
+     * depths 1, 2, 3 and so on.
+     */
+    private static final long[][] FIXTURES = {
+        {1, 1, 1, 0, 0, 0, 0, 0},
+        {2, 2, 2, 3, 2, 3, 5, 5, 4, 1, 0, 0},
+        {3, 3, 3, 8, 19, 48, 120, 280, 610, 1283, 2565, 4962},
+        {4, 2, 4, 15, 48, 141, 374, 933, 2342, 5639, 13264, 30666},
+        {4, 4, 4, 15, 51, 181, 644, 2203, 7470, 24423, 77210},
+        {6, 3, 6, 35, 182, 904, 4243, 19418, 87103, 387726, 1715619},
+        {6, 6, 6, 35, 190, 1056, 5882, 32243, 177827, 962153},
+        {8, 9, 8, 64, 491, 3753, 28811, 218807, 1669179},
+        {12, 12, 12, 143, 1639, 18921, 218088, 2508180},
+    };
+
+    private PerftHarness() {
+        throw new UnsupportedOperationException("Illegal call of utility "
+                + "class constructor.");
+    }
+
+    /**
+     * Runs the harness.
+     *
+     * @param args Command line arguments as described above.
+     */
+    public static void main(String[] args) {
+        int pits = 0;
+        int seeds = 0;
+        int depth = 0;
+        for (String arg : args) {
+            int value = Integer.parseInt(arg.substring(arg.indexOf('=') + 1));
+            if (arg.startsWith("--pits=")) {
+                pits = value;
+            } else if (arg.startsWith("--seeds=")) {
+                seeds = value;
+            } else if (arg.startsWith("--depth=")) {
+                depth = value;
+            } else {
+                throw new IllegalArgumentException("Unknown option " + arg);
+            }
+        }
+        if (depth > 0) {
+            divide(new GameBoard(pits, seeds, Player.HUMAN, 1), depth);
+        } else if (!verify()) {
+            System.exit(1);
+        }
+    }
+
+    private static boolean verify() {
+        boolean passed = true;
+        for (long[] fixture : FIXTURES) {
+            int pits = (int) fixture[0];
+            int seeds = (int) fixture[1];
+            GameBoard board = new GameBoard(pits, seeds, Player.HUMAN, 1);
+            boolean packable = pits <= PackedPosition.MAX_PITS_PER_PLAYER;
+            PackedPosition position = packable ? PackedPosition.of(board)
+                    : null;
+            int maxDepth = fixture.length - 2;
+            for (int depth = 1; depth <= maxDepth; depth++) {
+                long expected = fixture[depth + 1];
+                long start = System.nanoTime();
+                long count = Perft.perft(board, depth);
+                long elapsed = System.nanoTime() - start;
+                long packedCount = packable ? Perft.perft(position, depth)
+                        : count;
+                boolean ok = count == expected && packedCount == expected;
+                passed &= ok;
+                if (!ok || depth == maxDepth) {
+                    System.out.printf(Locale.ROOT,
+                            "%s pits=%d seeds=%d depth=%d count=%d "
+                                    + "expected=%d %.0f nodes/s%n",
+                            ok ? "ok  " : "FAIL", pits, seeds, depth, count,
+                            expected, count / (elapsed / 1e9));
+                }
+            }
+        }
+        return passed;
+    }
+
+    private static void divide(GameBoard board, int depth) {
+        long start = System.nanoTime();
+        long[] counts = Perft.divide(board, depth);
+        long elapsed = System.nanoTime() - start;
+        long total = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                System.out.println("pit " + (i + 1) + ": " + counts[i]);
+            }
+            total += counts[i];
+        }
+        System.out.printf(Locale.ROOT, "total: %d, %.0f nodes/s%n", total,
+                total / (elapsed / 1e9));
+    }
+}
@@ -0,0 +1,54 @@
+package kalah.model;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+
+/**
+ * Generates an endgame {@link Tablebase} and writes it to a file.
+ *
+ * Options: {@code --pits=P} pits per player, {@code --seeds=N} the maximum
+ * number of seeds in the pits and {@code --file=F} the file to write, by
+ * default {@code kalah-P-N.tb}.
+ */
+public final class TablebaseGenerator {
+
+    private TablebaseGenerator() {
+        throw new UnsupportedOperationException("Illegal call of utility "
+                + "class constructor.");
+    }
+
+    /**
+     * Runs the generator.
+     *
+     * @param args Command line arguments as described above.
+     * @throws IOException If the table cannot be written.
+     */
+    public static void main(String[] args) throws IOException {
+        int pits = Board.DEFAULT_PITS_PER_PLAYER;
+        int seeds = 10;
+        String file = null;
+        for (String arg : args) {
+            String value = arg.substring(arg.indexOf('=') + 1);
+            if (arg.startsWith("--pits=")) {
+                pits = Integer.parseInt(value);
+            } else if (arg.startsWith("--seeds=")) {
+                seeds = Integer.parseInt(value);
+            } else if (arg.startsWith("--file=")) {
+                file = value;
+            } else {
+                throw new IllegalArgumentException("Unknown option " + arg);
+            }
+        }
+        Path path = Paths.get(file != null ? file
+                : "kalah-" + pits + "-" + seeds + ".tb");
+        long start = System.nanoTime();
+        Tablebase tablebase = Tablebase.generate(pits, seeds);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        tablebase.write(path);
+        System.out.printf(Locale.ROOT, "Solved all endgames with %d pits "
+                + "and up to %d seeds in %.1f s, written to %s%n", pits,
+                seeds, seconds, path);
+    }
+}
@@ -0,0 +1,293 @@
+package kalah.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+
+/**
+ * Plays games between two engines without the view, on a thread pool, and
+ * reports the results of the first engine per game configuration.
+ *
+ * The first engine plays the machine, the second one the human by choosing
+ * the machine moves on the {@linkplain GameBoard#mirror() mirrored} board.
+ * The engines open the games in turns. The first plies of every game are
+ * random, so the games of deterministic engines differ.
+ *
+ * Options: {@code --first=} and {@code --second=} the engines as
+ * {@code name:level} with the names {@code alphabeta}, {@code minimax},
+ * {@code parallel} (a thread per core), {@code id} and {@code mcts} (for
+ * the last two, the level is the time per move in milliseconds),
+ * {@code --pits=} and {@code --seeds=} lists like {@code 1,3,6-8},
+ * {@code --games=} the games per configuration, {@code --random=} the
+ * random plies per game, {@code --threads=} the size of the pool and
+ * {@code --seed=} the seed of the random plies.
+ */
+public final class Tournament {
+
+    private Tournament() {
+        throw new UnsupportedOperationException("Illegal call of utility "
+                + "class constructor.");
+    }
+
+    /**
+     * Runs the tournament.
+     *
+     * @param args Command line arguments as described above.
+     * @throws InterruptedException If the thread was interrupted.
+     * @throws ExecutionException If a game failed.
+     */
+    public static void main(String[] args) throws InterruptedException,
+            ExecutionException {
+        Contestant first = new Contestant("alphabeta:" + Board.DEFAULT_LEVEL);
+        Contestant second = new Contestant("minimax:" + Board.DEFAULT_LEVEL);
+        String pits = "6";
+        String seeds = "3,6";
+        int games = 100;
+        int randomPlies = 2;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long seed = 1;
+        for (String arg : args) {
+            String value = arg.substring(arg.indexOf('=') + 1);
+            if (arg.startsWith("--first=")) {
+                first = new Contestant(value);
+            } else if (arg.startsWith("--second=")) {
+                second = new Contestant(value);
+            } else if (arg.startsWith("--pits=")) {
+                pits = value;
+            } else if (arg.startsWith("--seeds=")) {
+                seeds = value;
+            } else if (arg.startsWith("--games=")) {
+                games = Integer.parseInt(value);
+            } else if (arg.startsWith("--random=")) {
+                randomPlies = Integer.parseInt(value);
+            } else if (arg.startsWith("--threads=")) {
+                threads = Integer.parseInt(value);
+            } else if (arg.startsWith("--seed=")) {
+                seed = Long.parseLong(value);
+            } else {
+                throw new IllegalArgumentException("Unknown option " + arg);
+            }
+        }
+        System.out.printf(Locale.ROOT, "%s against %s%n", first.spec,
+                second.spec);
+        System.out.printf(Locale.ROOT, "%5s %5s %6s %6s %6s %6s %8s %12s "
+                + "%12s%n", "Pits", "Seeds", "Games", "Wins", "Draws",
+                "Losses", "Margin", "1st moves/s", "2nd moves/s");
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            Score total = new Score();
+            long start = System.nanoTime();
+            for (int p : KalahBenchmarks.parseList(pits, 1,
+                    Board.MAX_PITS_PER_PLAYER)) {
+                for (int s : KalahBenchmarks.parseList(seeds, 1,
+                        Board.MAX_SEEDS_PER_PIT)) {
+                    List<Future<Game>> results = new ArrayList<>();
+                    for (int g = 0; g < games; g++) {
+                        Game game = new Game(first, second, p, s,
+                                g % 2 == 0 ? Player.MACHINE : Player.HUMAN,
+                                randomPlies, seed + g);
+                        results.add(pool.submit(game::play));
+                    }
+                    Score score = new Score();
+                    for (Future<Game> result : results) {
+                        score.add(result.get());
+                    }
+                    score.print(p, s);
+                    total.add(score);
+                }
+            }
+            total.print(0, 0);
+            System.out.printf(Locale.ROOT, "%.1f games/s%n", total.games
+                    / ((System.nanoTime() - start) / 1e9));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * An engine and its level, creating a new engine for every game.
+     */
+    private static final class Contestant {
+        private final String spec;
+        private final String name;
+        private final int level;
+
+        Contestant(String spec) {
+            int colon = spec.indexOf(':');
+            if (colon < 0) {
+                throw new IllegalArgumentException("Invalid engine " + spec);
+            }
+            this.spec = spec;
+            name = spec.substring(0, colon);
+            level = Integer.parseInt(spec.substring(colon + 1));
+            shutdown(createEngine());
+        }
+
+        Engine createEngine() {
+            switch (name) {
+            case "alphabeta":
+                return new AlphaBetaEngine();
+            case "minimax":
+                return new MinimaxEngine();
+            case "parallel":
+                return new ParallelEngine();
+            case "id":
+                return new IterativeDeepeningEngine(level);
+            case "mcts":
+                return new MonteCarloEngine(level);
+            default:
+                throw new IllegalArgumentException("Unknown engine " + name);
+            }
+        }
+
+        /**
+         * Stops the threads of an engine created by this contestant, if it
+         * has any.
+         *
+         * @param engine The engine no longer used.
+         */
+        static void shutdown(Engine engine) {
+            if (engine instanceof ParallelEngine) {
+                ((ParallelEngine) engine).shutdown();
+            }
+        }
+    }
+
+    /**
+     * A single game and, after it was played, its result.
+     */
+    private static final class Game {
+        private final Contestant first;
+        private final Contestant second;
+        private final GameBoard board;
+        private final int randomPlies;
+        private final Random random;
+        private int firstMoves;
+        private int secondMoves;
+        private long firstNanos;
+        private long secondNanos;
+        private int margin;
+
+        Game(Contestant first, Contestant second, int pits, int seeds,
+             Player opener, int randomPlies, long seed) {
+            this.first = first;
+            this.second = second;
+            board = new GameBoard(pits, seeds, opener, first.level);
+            this.randomPlies = randomPlies;
+            random = new Random(seed);
+        }
+
+        /**
+         * Plays the game.
+         *
+         * @return This game.
+         * @throws InterruptedException If the thread was interrupted.
+         */
+        Game play() throws InterruptedException {
+            Engine machine = first.createEngine();
+            Engine human = second.createEngine();
+            try {
+                int pitsPerPlayer = board.getPitsPerPlayer();
+                for (int ply = 0; !board.isGameOver(); ply++) {
+                    int i;
+                    if (ply < randomPlies) {
+                        i = randomPit();
+                    } else if (board.getCurrentPlayer() == Player.MACHINE) {
+                        long start = System.nanoTime();
+                        i = machine.selectPit(board, first.level)
+                                - pitsPerPlayer - 1;
+                        firstNanos += System.nanoTime() - start;
+                        firstMoves++;
+                    } else {
+                        long start = System.nanoTime();
+                        i = human.selectPit(board.mirror(), second.level)
+                                - pitsPerPlayer - 1;
+                        secondNanos += System.nanoTime() - start;
+                        secondMoves++;
+                    }
+                    board.applyMove(i);
+                }
+            } finally {
+                Contestant.shutdown(machine);
+                Contestant.shutdown(human);
+            }
+            margin = board.getSeedsOfPlayer(Player.MACHINE)
+                    - board.getSeedsOfPlayer(Player.HUMAN);
+            return this;
+        }
+
+        private int randomPit() {
+            int pitsPerPlayer = board.getPitsPerPlayer();
+            int i;
+            do {
+                i = random.nextInt(pitsPerPlayer);
+            } while (board.getSeeds(board.pitOfCurrentPlayer(i)) == 0);
+            return i;
+        }
+    }
+
+    /**
+     * The results of the first engine in a number of games.
+     */
+    private static final class Score {
+        private int games;
+        private int wins;
+        private int draws;
+        private long margin;
+        private long firstMoves;
+        private long secondMoves;
+        private long firstNanos;
+        private long secondNanos;
+
+        void add(Game game) {
+            games++;
+            if (game.margin > 0) {
+                wins++;
+            } else if (game.margin == 0) {
+                draws++;
+            }
+            margin += game.margin;
+            firstMoves += game.firstMoves;
+            secondMoves += game.secondMoves;
+            firstNanos += game.firstNanos;
+            secondNanos += game.secondNanos;
+        }
+
+        void add(Score score) {
+            games += score.games;
+            wins += score.wins;
+            draws += score.draws;
+            margin += score.margin;
+            firstMoves += score.firstMoves;
+            secondMoves += score.secondMoves;
+            firstNanos += score.firstNanos;
+            secondNanos += score.secondNanos;
+        }
+
+        /**
+         * Prints a row of the results.
+         *
+         * @param pits The pits per player or 0 for the total.
+         * @param seeds The seeds per pit or 0 for the total.
+         */
+        void print(int pits, int seeds) {
+            System.out.printf(Locale.ROOT, "%5s %5s %6d %6d %6d %6d %8.2f "
+                    + "%12.1f %12.1f%n",
+                    pits == 0 ? "all" : String.valueOf(pits),
+                    seeds == 0 ? "all" : String.valueOf(seeds), games, wins,
+                    draws, games - wins - draws, (double) margin / games,
+                    movesPerSecond(firstMoves, firstNanos),
+                    movesPerSecond(secondMoves, secondNanos));
+        }
+
+        private static double movesPerSecond(long moves, long nanos) {
+            return nanos == 0 ? 0 : moves / (nanos / 1e9);
+        }
+    }
+}
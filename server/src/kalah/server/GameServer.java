@@ -0,0 +1,233 @@
+package kalah.server;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import kalah.model.AlphaBetaEngine;
+import kalah.model.Board;
+import kalah.model.BookEngine;
+import kalah.model.Engine;
+import kalah.model.GameBoard;
+import kalah.model.Player;
+import kalah.model.TablebaseEngine;
+
+/**
+ * Hosts many games at once over TCP. Every connection is a {@link Session}
+ * with a game of its own, speaking the line protocol described there.
+ *
+ * Sessions run on virtual threads if the runtime offers them, so sessions
+ * waiting for the next human move cost little more than their board. The
+ * machine moves are searched on a fixed pool with one thread per core, so
+ * concurrent searches use all cores without oversubscribing them; further
+ * searches wait for a free thread. Each search thread has an engine of its
+ * own, so the transposition tables are bounded by the number of threads,
+ * not of games. If the system properties {@value BookEngine#BOOK_PROPERTY}
+ * and {@value TablebaseEngine#TABLEBASE_PROPERTY} name an opening book and
+ * endgame tables, all engines play from them.
+ */
+public final class GameServer implements AutoCloseable {
+
+    /**
+     * The port the server listens on by default.
+     */
+    public static final int DEFAULT_PORT = 4711;
+
+    private final ExecutorService sessions = newSessionExecutor();
+    private final ExecutorService searches;
+    private final AtomicInteger openSessions = new AtomicInteger();
+    private final Set<Socket> clients = ConcurrentHashMap.newKeySet();
+    private final ThreadLocal<AlphaBetaEngine> engines =
+            ThreadLocal.withInitial(AlphaBetaEngine::new);
+    private final Engine engine = BookEngine.withOptionalBook(
+            TablebaseEngine.withOptionalTablebase((board, level) -> engines
+                    .get().selectPit(board, level)));
+    private final ServerSocket serverSocket;
+
+    /**
+     * Creates a server listening on the given port.
+     *
+     * @param port The port, 0 for any free port.
+     * @param searchThreads The number of threads searching machine moves.
+     * @throws IOException If the port cannot be bound.
+     * @throws IllegalArgumentException If there is no search thread.
+     */
+    public GameServer(int port, int searchThreads) throws IOException {
+        if (searchThreads < 1) {
+            throw new IllegalArgumentException();
+        }
+        searches = Executors.newFixedThreadPool(searchThreads, runnable -> {
+            Thread thread = new Thread(runnable, "kalah-search");
+            thread.setDaemon(true);
+            return thread;
+        });
+        serverSocket = new ServerSocket(port);
+    }
+
+    /**
+     * Starts a server.
+     *
+     * @param args {@code --port=P} the port and {@code --threads=T} the number
+     *        of search threads, by default one per core.
+     * @throws IOException If the port cannot be bound.
+     */
+    public static void main(String[] args) throws IOException {
+        int port = DEFAULT_PORT;
+        int threads = Runtime.getRuntime().availableProcessors();
+        for (String arg : args) {
+            String value = arg.substring(arg.indexOf('=') + 1);
+            if (arg.startsWith("--port=")) {
+                port = Integer.parseInt(value);
+            } else if (arg.startsWith("--threads=")) {
+                threads = Integer.parseInt(value);
+            } else {
+                throw new IllegalArgumentException("Unknown option " + arg);
+            }
+        }
+        try (GameServer server = new GameServer(port, threads)) {
+            System.out.println("Kalah server listening on port "
+                    + server.getPort());
+            server.serve();
+        }
+    }
+
+    /**
+     * Returns the port the server listens on.
+     *
+     * @return The local port.
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Returns the number of connected sessions.
+     *
+     * @return The number of open sessions.
+     */
+    public int getSessionCount() {
+        return openSessions.get();
+    }
+
+    /**
+     * Accepts connections until the server is closed.
+     *
+     * @throws IOException If accepting fails while the server is open.
+     */
+    public void serve() throws IOException {
+        while (!serverSocket.isClosed()) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (IOException e) {
+                if (serverSocket.isClosed()) {
+                    return;
+                }
+                throw e;
+            }
+            clients.add(socket);
+            if (serverSocket.isClosed()) {
+                clients.remove(socket);
+                socket.close();
+                return;
+            }
+            openSessions.incrementAndGet();
+            sessions.execute(() -> {
+                try {
+                    new Session(this, socket).run();
+                } finally {
+                    clients.remove(socket);
+                    openSessions.decrementAndGet();
+                }
+            });
+        }
+    }
+
+    /**
+     * Stops accepting connections and ends all sessions. The connections
+     * are closed, since a session waiting for the next command of its client
+     * on a platform thread is not woken up by an interrupt.
+     *
+     * @throws IOException If the server socket cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        for (Socket client : clients) {
+            try {
+                client.close();
+            } catch (IOException e) {
+                // The session ends anyway.
+            }
+        }
+        sessions.shutdownNow();
+        searches.shutdownNow();
+    }
+
+    /**
+     * Creates the board of a new game that searches its machine moves with
+     * the engine of the executing search thread.
+     *
+     * @param pitsPerPlayer Number of pits for each player.
+     * @param seedsPerPit Number of seeds in each pit.
+     * @param openingPlayer The player who starts the game.
+     * @param level Level of the game.
+     * @return The new board.
+     */
+    GameBoard newGame(int pitsPerPlayer, int seedsPerPit,
+                      Player openingPlayer, int level) {
+        GameBoard game = new GameBoard(pitsPerPlayer, seedsPerPit,
+                openingPlayer, level);
+        game.setEngine(engine);
+        return game;
+    }
+
+    /**
+     * Executes the machine move on a board on the search pool and waits for
+     * it. If the waiting thread is interrupted, the search is cancelled.
+     *
+     * @param game The board on which the machine has to move.
+     * @throws InterruptedException If the waiting thread was interrupted.
+     */
+    void machineMove(Board game) throws InterruptedException {
+        Future<Board> search = searches.submit(game::machineMove);
+        try {
+            search.get();
+        } catch (InterruptedException e) {
+            search.cancel(true);
+            throw e;
+        } catch (CancellationException e) {
+            throw new InterruptedException();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * Creates an executor with a virtual thread per task if the runtime
+     * supports them and with a cached pool of platform threads otherwise.
+     *
+     * @return The executor for the sessions.
+     */
+    private static ExecutorService newSessionExecutor() {
+        try {
+            return (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor")
+                    .invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package kalah.server;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+import kalah.model.Board;
+import kalah.model.IllegalMoveException;
+import kalah.model.Player;
+
+/**
+ * A game played over a connection. The client sends one command per line:
+ *
+ * <ul>
+ * <li>{@code new PITS SEEDS human|machine LEVEL} starts a new game, the
+ *     machine moves at once if it opens;</li>
+ * <li>{@code move PIT} sows the human pit {@code PIT}, counted from 1, and
+ *     lets the machine answer;</li>
+ * <li>{@code level LEVEL} changes the level of the current game;</li>
+ * <li>{@code board} shows the current game;</li>
+ * <li>{@code quit} ends the session.</li>
+ * </ul>
+ *
+ * Each command is answered by {@code moved FROM TO} for every machine move,
+ * with the pits numbered from 1 over the whole board, then
+ * {@code board S1 ... SN} with the seeds of all pits and stores in this
+ * numbering, and finally {@code turn human}, {@code turn machine} or
+ * {@code over WINNER HUMAN_SEEDS MACHINE_SEEDS} with the winner
+ * {@code human}, {@code machine} or {@code tie}. A rejected command is
+ * answered by {@code error REASON} only, {@code quit} by {@code bye}. The
+ * sizes and levels are limited as in the other front ends, so a single
+ * client cannot hold a search thread for long.
+ */
+final class Session implements Runnable {
+    private final GameServer server;
+    private final Socket socket;
+    private PrintWriter out;
+    private Board game;
+    private Player turn;
+
+    /**
+     * Creates the session of a connection.
+     *
+     * @param server The server searching the machine moves.
+     * @param socket The connection to the client.
+     */
+    Session(GameServer server, Socket socket) {
+        this.server = server;
+        this.socket = socket;
+        game = server.newGame(Board.DEFAULT_PITS_PER_PLAYER,
+                Board.DEFAULT_SEEDS_PER_PIT, Board.DEFAULT_OPENING_PLAYER,
+                Board.DEFAULT_LEVEL);
+        turn = game.getOpeningPlayer();
+    }
+
+    /**
+     * Answers the commands of the client until it quits or disconnects.
+     */
+    @Override
+    public void run() {
+        try (Socket connection = socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(
+                     connection.getInputStream(), StandardCharsets.UTF_8))) {
+            out = new PrintWriter(new OutputStreamWriter(
+                    connection.getOutputStream(), StandardCharsets.UTF_8),
+                    true);
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (!execute(line.trim().split("\\s+"))) {
+                    out.println("bye");
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            // The client is gone, so is its game.
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Executes a command and answers it.
+     *
+     * @param words The command and its parameters.
+     * @return {@code false} if the session ends.
+     * @throws InterruptedException If the session was interrupted while the
+     *         machine was searching.
+     */
+    private boolean execute(String[] words) throws InterruptedException {
+        try {
+            switch (words[0]) {
+            case "new":
+                newGame(words);
+                break;
+            case "move":
+                humanMove(words);
+                break;
+            case "level":
+                expectWords(words, 2);
+                int level = parse(words[1]);
+                if (level < 1 || level > Board.MAX_LEVEL) {
+                    throw new IllegalArgumentException("level 1 to "
+                            + Board.MAX_LEVEL);
+                }
+                game.setLevel(level);
+                break;
+            case "board":
+                break;
+            case "quit":
+                return false;
+            default:
+                throw new IllegalArgumentException("unknown command "
+                        + words[0]);
+            }
+        } catch (IllegalMoveException e) {
+            out.println("error game over or not your turn");
+            return true;
+        } catch (IllegalArgumentException e) {
+            out.println("error " + e.getMessage());
+            return true;
+        }
+        printBoard();
+        return true;
+    }
+
+    private void newGame(String[] words) throws InterruptedException {
+        expectWords(words, 5);
+        int pits = parse(words[1]);
+        int seeds = parse(words[2]);
+        int level = parse(words[4]);
+        if (pits < 1 || pits > Board.MAX_PITS_PER_PLAYER || seeds < 1
+                || seeds > Board.MAX_SEEDS_PER_PIT || level < 1
+                || level > Board.MAX_LEVEL) {
+            throw new IllegalArgumentException("from 1 to "
+                    + Board.MAX_PITS_PER_PLAYER + " pits, 1 to "
+                    + Board.MAX_SEEDS_PER_PIT + " seeds and level 1 to "
+                    + Board.MAX_LEVEL);
+        }
+        Player opener;
+        if (words[3].equals("human")) {
+            opener = Player.HUMAN;
+        } else if (words[3].equals("machine")) {
+            opener = Player.MACHINE;
+        } else {
+            throw new IllegalArgumentException("unknown player " + words[3]);
+        }
+        game = server.newGame(pits, seeds, opener, level);
+        turn = opener;
+        if (turn == Player.MACHINE) {
+            machineMoves();
+        }
+    }
+
+    private void humanMove(String[] words) throws InterruptedException {
+        expectWords(words, 2);
+        if (game.isGameOver() || turn != Player.HUMAN) {
+            throw new IllegalMoveException();
+        }
+        int pit = parse(words[1]);
+        if (pit < 1 || pit > game.getPitsPerPlayer()
+                || game.move(pit - 1) == null) {
+            throw new IllegalArgumentException("invalid pit " + pit);
+        }
+        if (!game.isGameOver()) {
+            turn = game.next();
+            if (turn == Player.MACHINE) {
+                machineMoves();
+            }
+        }
+    }
+
+    /**
+     * Lets the machine move until it is the human's turn or the game is
+     * over.
+     *
+     * @throws InterruptedException If the session was interrupted.
+     */
+    private void machineMoves() throws InterruptedException {
+        do {
+            server.machineMove(game);
+            out.println("moved " + (game.sourcePitOfLastMove() + 1) + " "
+                    + (game.targetPitOfLastMove() + 1));
+            if (game.isGameOver()) {
+                return;
+            }
+            turn = game.next();
+        } while (turn == Player.MACHINE);
+    }
+
+    private void printBoard() {
+        StringBuilder line = new StringBuilder("board");
+        int slots = 2 * (game.getPitsPerPlayer() + 1);
+        for (int pit = 0; pit < slots; pit++) {
+            line.append(' ').append(game.getSeeds(pit));
+        }
+        out.println(line);
+        int human = game.getSeedsOfPlayer(Player.HUMAN);
+        int machine = game.getSeedsOfPlayer(Player.MACHINE);
+        if (game.isGameOver()) {
+            Player winner = game.getWinner();
+            String result = winner == null ? "tie"
+                    : winner.name().toLowerCase(Locale.ROOT);
+            out.println("over " + result + " " + human + " " + machine);
+        } else {
+            out.println("turn " + turn.name().toLowerCase(Locale.ROOT));
+        }
+    }
+
+    private static void expectWords(String[] words, int count) {
+        if (words.length != count) {
+            throw new IllegalArgumentException("expected " + (count - 1)
+                    + " parameters");
+        }
+    }
+
+    private static int parse(String number) {
+        try {
+            return Integer.parseInt(number);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("not a number " + number);
+        }
+    }
+}
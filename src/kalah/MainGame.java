@@ -20,8 +20,8 @@ public final class MainGame {
      */
     public static void main(String[] args) {
         Board game  = new GameBoard(Board.DEFAULT_PITS_PER_PLAYER,
-                Board.DEFAULT_SEEDS_PER_PIT, View.DEF_STARTER,
-                View.DEFAULT_LEVEL);
+                Board.DEFAULT_SEEDS_PER_PIT, Board.DEFAULT_OPENING_PLAYER,
+                Board.DEFAULT_LEVEL);
         View view = new View(game);
         View.Controller c = view.new Controller(view);
         c.run();
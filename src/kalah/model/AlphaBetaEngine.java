@@ -0,0 +1,617 @@
+package kalah.model;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A depth-first minimax search with alpha-beta pruning. It chooses the same
+ * pit as the {@link MinimaxEngine}, i.e., the lowest pit among the moves of
+ * maximal value, but skips all subtrees that cannot change this choice.
+ *
+ * Moves which end in the own store are tried first, since they grant an extra
+ * turn and therefore tend to be the strongest ones, then captures. The order
+ * only affects the number of searched boards, never the chosen pit.
+ *
+ * The value of a board is its own evaluation plus the value of its best
+ * successor. Hence, the search window of a board is shifted by its evaluation
+ * before it is handed down to the successors.
+ *
+ * All moves are executed and taken back on a single copy of the searched
+ * board, so the search itself does not create any objects.
+ *
+ * Results are kept in a {@link TranspositionTable}, so positions reached by
+ * different move orders are searched only once. Since the value of a board
+ * depends on its distance to the root, stored values are reused at equal
+ * depth and ply only. The stored best pit is tried first in any case.
+ *
+ * The table is kept from one search to the next. After the machine and the
+ * human have moved, the positions below the reached one were searched
+ * before, two or more plies deeper. Their values cannot be reused at the new
+ * ply, but their best pits order the moves of the new search, so that it
+ * mainly has to search the new frontier.
+ *
+ * The search collects the principal variation. A search can be given the
+ * line of a former one, e.g., of the previous iteration of an {@link
+ * IterativeDeepeningEngine}; its moves are then tried first along the line.
+ *
+ * Every {@value #CHECK_INTERVAL} boards, the search checks whether its thread
+ * was interrupted or its deadline has passed and stops if so.
+ */
+public class AlphaBetaEngine implements Engine {
+
+    /**
+     * The deadline of a search without time limit.
+     */
+    static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    /**
+     * The kind of a move that neither grants an extra turn nor captures.
+     */
+    static final int QUIET = 0;
+
+    /**
+     * The kind of a move that captures the seeds of the opposite pit.
+     */
+    static final int CAPTURE = 1;
+
+    /**
+     * The kind of a move whose last seed reaches the own store.
+     */
+    static final int EXTRA_TURN = 2;
+
+    private static final int CHECK_INTERVAL = 1024;
+    private static final int KIND_SHIFT = 16;
+
+    private final TranspositionTable table;
+    private Zobrist zobrist;
+    private int[][] moveOrder = new int[0][0];
+    private long deadline = NO_DEADLINE;
+    private long nodes;
+    private boolean horizonReached;
+    private int rootBestPit;
+    private double rootValue;
+    private int[][] pv = new int[0][0];
+    private int[] pvLength = new int[0];
+    private int[] line = new int[0];
+    private int linePly;
+    private SearchStatistics statistics;
+
+    /**
+     * Creates an engine with a transposition table of default size.
+     */
+    public AlphaBetaEngine() {
+        this(new TranspositionTable());
+    }
+
+    /**
+     * Creates an engine with the given transposition table.
+     *
+     * @param table The table to keep search results in or {@code null} to
+     *        search without one.
+     */
+    public AlphaBetaEngine(TranspositionTable table) {
+        this.table = table;
+    }
+
+    /**
+     * Returns the transposition table of this engine.
+     *
+     * @return The table or {@code null} if the engine does not use one.
+     */
+    public TranspositionTable getTable() {
+        return table;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int selectPit(GameBoard board, int level)
+            throws InterruptedException {
+        return selectPit(board, level, null);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int selectPit(GameBoard board, int level,
+                         SearchStatistics statistics)
+            throws InterruptedException {
+        return analyze(board, level, statistics).getPit();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public SearchResult analyze(GameBoard board, int level,
+                                SearchStatistics statistics)
+            throws InterruptedException {
+        try {
+            SearchResult result = search(board, level, null, NO_DEADLINE,
+                    statistics);
+            if (statistics != null) {
+                statistics.setDepth(level);
+            }
+            return result;
+        } catch (TimeoutException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Searches the best machine pit up to the given depth before a deadline.
+     * If the deadline passes, {@link #getRootResult(int)} returns the best
+     * pit among the completely searched ones.
+     *
+     * @param board The board on which the machine has to move.
+     * @param level The search depth, must be at least 1.
+     * @param formerLine The principal variation of a former search of the
+     *        board, whose moves are tried first, or {@code null}.
+     * @param deadline The value of {@link System#nanoTime()} at which the
+     *        search stops, or {@link #NO_DEADLINE}.
+     * @param statistics The statistics to fill or {@code null}.
+     * @return The result of the search.
+     * @throws InterruptedException If the executing thread was interrupted.
+     * @throws TimeoutException If the deadline passed.
+     */
+    SearchResult search(GameBoard board, int level, int[] formerLine,
+                        long deadline, SearchStatistics statistics)
+            throws InterruptedException, TimeoutException {
+        GameBoard work = prepare(board, level, deadline, statistics);
+        setLine(formerLine, board.getPitsPerPlayer());
+        if (statistics != null) {
+            statistics.countNode(0);
+            statistics.countExpansion();
+        }
+        pvLength[0] = 0;
+        int[] moves = moveOrder[0];
+        int numOfMoves = orderMoves(work, moves,
+                line.length > 0 ? line[0] : hashPit(work));
+        double ownValue = work.evaluate(0);
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (int k = 0; k < numOfMoves; k++) {
+            int i = moves[k];
+            double alpha = bestValue;
+            if (i < rootBestPit) {
+                // A tie with a lower pit must be detected, too.
+                alpha = Math.nextDown(bestValue);
+            }
+            int pit = work.pitOfCurrentPlayer(i);
+            boolean onLine = followLine(0, i);
+            long move = work.applyMove(i);
+            double value = alphaBeta(work, 1, level - 1, alpha,
+                    Double.POSITIVE_INFINITY);
+            work.undoMove(move);
+            if (onLine) {
+                linePly = 0;
+            }
+            if (value > bestValue || (value == bestValue && i < rootBestPit)) {
+                bestValue = value;
+                rootBestPit = i;
+                rootValue = bestValue + ownValue;
+                updatePrincipalVariation(0, pit);
+            }
+        }
+        if (table != null) {
+            table.store(work.getHash(), bestValue + work.evaluate(0),
+                    TranspositionTable.EXACT, level, 0, rootBestPit);
+        }
+        return getRootResult(level);
+    }
+
+    /**
+     * Computes the value of a single machine move. The value is exact if it
+     * is above {@code alpha}, otherwise it is an upper bound.
+     *
+     * @param board The board on which the machine has to move.
+     * @param i The non-empty machine pit to sow, counted from 0.
+     * @param level The search depth, must be at least 1.
+     * @param alpha The value the machine is already assured of.
+     * @param statistics The statistics to fill or {@code null}.
+     * @return The value of the board after the move.
+     * @throws InterruptedException If the executing thread was interrupted.
+     */
+    double searchMove(GameBoard board, int i, int level, double alpha,
+                      SearchStatistics statistics)
+            throws InterruptedException {
+        GameBoard work = prepare(board, level, NO_DEADLINE, statistics);
+        work.applyMove(i);
+        try {
+            return alphaBeta(work, 1, level - 1, alpha,
+                    Double.POSITIVE_INFINITY);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Returns the principal variation of the last call of {@link
+     * #searchMove(GameBoard, int, int, double, SearchStatistics)}. It is
+     * only valid if the value of the move was exact.
+     *
+     * @param pit The number of the sown pit on the board.
+     * @return The pits of the best line, starting with the sown one.
+     */
+    int[] getMoveVariation(int pit) {
+        int[] variation = Arrays.copyOf(pv[1], Math.max(pvLength[1], 1));
+        variation[0] = pit;
+        return variation;
+    }
+
+    /**
+     * Resets the state of the engine for a new search and returns the copy of
+     * the board to search on.
+     *
+     * @param board The board on which the machine has to move.
+     * @param level The search depth.
+     * @param deadline The deadline of the search.
+     * @param statistics The statistics to fill or {@code null}.
+     * @return The board to search on.
+     */
+    private GameBoard prepare(GameBoard board, int level, long deadline,
+                              SearchStatistics statistics) {
+        ensureCapacity(level + 1, board.getPitsPerPlayer());
+        this.deadline = deadline;
+        this.statistics = statistics;
+        horizonReached = false;
+        rootBestPit = -1;
+        setLine(null, board.getPitsPerPlayer());
+        GameBoard work = (GameBoard) board.clone();
+        if (table != null) {
+            if (zobrist == null || !zobrist.fits(board)) {
+                zobrist = new Zobrist(board.getPitsPerPlayer(),
+                        board.getSeedsPerPit());
+            }
+            work.setZobrist(zobrist);
+            table.newSearch();
+        }
+        return work;
+    }
+
+    /**
+     * Returns the result of the last search for the best machine pit among
+     * the completely searched ones.
+     *
+     * @param depth The depth of the last search.
+     * @return The result or {@code null} if no pit was searched completely.
+     */
+    SearchResult getRootResult(int depth) {
+        if (rootBestPit < 0) {
+            return null;
+        }
+        return new SearchResult(pv[0][0], rootValue,
+                Arrays.copyOf(pv[0], pvLength[0]), depth);
+    }
+
+    /**
+     * Sets the line whose moves are tried first.
+     *
+     * @param formerLine The pits of the line or {@code null} for none.
+     * @param pitsPerPlayer The number of pits per player.
+     */
+    private void setLine(int[] formerLine, int pitsPerPlayer) {
+        int length = formerLine == null ? 0
+                : Math.min(formerLine.length, moveOrder.length);
+        if (line.length != length) {
+            line = new int[length];
+        }
+        for (int p = 0; p < length; p++) {
+            line[p] = formerLine[p] % (pitsPerPlayer + 1);
+        }
+        linePly = 0;
+    }
+
+    /**
+     * Checks if a move continues the line to try first and, if so, follows
+     * the line one ply deeper.
+     *
+     * @param ply The ply of the board the move is executed on.
+     * @param i The pit to sow, counted from 0.
+     * @return {@code true} if the move is on the line.
+     */
+    private boolean followLine(int ply, int i) {
+        if (ply == linePly && ply < line.length && line[ply] == i) {
+            linePly = ply + 1;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Makes a move and the principal variation of the board reached by it
+     * the principal variation of the board at the given ply.
+     *
+     * @param ply The ply of the board the move was executed on.
+     * @param pit The number of the sown pit on the board.
+     */
+    private void updatePrincipalVariation(int ply, int pit) {
+        int[] variation = pv[ply];
+        variation[ply] = pit;
+        int length = pvLength[ply + 1];
+        System.arraycopy(pv[ply + 1], ply + 1, variation, ply + 1,
+                length - ply - 1);
+        pvLength[ply] = length;
+    }
+
+    /**
+     * Checks if the last search evaluated a board at its maximum depth whose
+     * game was not over. If not, a deeper search yields the same result.
+     *
+     * @return {@code true} if and only if the search was cut off by its depth.
+     */
+    boolean isHorizonReached() {
+        return horizonReached;
+    }
+
+    /**
+     * Computes the value of a board within a search window. If the returned
+     * value is at most {@code alpha}, it is an upper bound of the real value.
+     * If it is at least {@code beta}, it is a lower bound. Otherwise, it is
+     * the exact value.
+     *
+     * @param node The board to evaluate.
+     * @param ply The distance of the board to the root.
+     * @param depth The remaining search depth.
+     * @param alpha The value the maximizing player is already assured of.
+     * @param beta The value the minimizing player is already assured of.
+     * @return The value of the board.
+     * @throws InterruptedException If the executing thread was interrupted.
+     * @throws TimeoutException If the deadline passed.
+     */
+    private double alphaBeta(GameBoard node, int ply, int depth, double alpha,
+                             double beta)
+            throws InterruptedException, TimeoutException {
+        if (++nodes % CHECK_INTERVAL == 0) {
+            checkAbort();
+        }
+        if (statistics != null) {
+            statistics.countNode(ply);
+        }
+        pvLength[ply] = ply;
+        boolean gameOver = node.isGameOver();
+        if (depth == 0 || gameOver) {
+            if (statistics != null) {
+                statistics.countLeafEvaluation();
+            }
+            if (!gameOver) {
+                horizonReached = true;
+            }
+            return node.evaluate(ply);
+        }
+        int entry = table == null ? -1 : table.probe(node.getHash());
+        int firstPit = -1;
+        if (entry >= 0) {
+            firstPit = table.getBestPit(entry);
+            if (table.getDepth(entry) == depth && table.getPly(entry) == ply) {
+                double value = table.getValue(entry);
+                int flag = table.getFlag(entry);
+                if (flag == TranspositionTable.EXACT
+                        || (flag == TranspositionTable.LOWER && value >= beta)
+                        || (flag == TranspositionTable.UPPER
+                        && value <= alpha)) {
+                    // The reused subtree may have reached the horizon.
+                    horizonReached = true;
+                    if (statistics != null) {
+                        statistics.countCacheHit();
+                    }
+                    return value;
+                }
+            }
+        }
+        double ownValue = node.evaluate(ply);
+        double lower = lowerChildBound(alpha, ownValue);
+        double upper = upperChildBound(beta, ownValue);
+        boolean maximizing = node.getCurrentPlayer() == Player.MACHINE;
+        double bestValue = maximizing ? Double.NEGATIVE_INFINITY
+                : Double.POSITIVE_INFINITY;
+        int bestPit = -1;
+        if (ply == linePly && ply < line.length) {
+            firstPit = line[ply];
+        }
+        int[] moves = moveOrder[ply];
+        int numOfMoves = orderMoves(node, moves, firstPit);
+        int k = 0;
+        while (k < numOfMoves && lower < upper) {
+            int pit = node.pitOfCurrentPlayer(moves[k]);
+            boolean onLine = followLine(ply, moves[k]);
+            long move = node.applyMove(moves[k]);
+            double value = alphaBeta(node, ply + 1, depth - 1, lower, upper);
+            node.undoMove(move);
+            if (onLine) {
+                linePly = ply;
+            }
+            if (maximizing ? value > bestValue : value < bestValue) {
+                bestValue = value;
+                bestPit = moves[k];
+                if (maximizing) {
+                    lower = Math.max(lower, value);
+                } else {
+                    upper = Math.min(upper, value);
+                }
+                updatePrincipalVariation(ply, pit);
+            }
+            k++;
+        }
+        if (statistics != null) {
+            statistics.countExpansion();
+            if (k < numOfMoves) {
+                statistics.countCutoff();
+                if (k == 1) {
+                    statistics.countFirstMoveCutoff();
+                }
+            }
+        }
+        double value = bestValue + ownValue;
+        if (table != null) {
+            int flag = TranspositionTable.EXACT;
+            if (value <= alpha) {
+                flag = TranspositionTable.UPPER;
+            } else if (value >= beta) {
+                flag = TranspositionTable.LOWER;
+            }
+            table.store(node.getHash(), value, flag, depth, ply, bestPit);
+        }
+        return value;
+    }
+
+    /**
+     * Stops the search if the executing thread was interrupted or the
+     * deadline has passed.
+     *
+     * @throws InterruptedException If the executing thread was interrupted.
+     * @throws TimeoutException If the deadline passed.
+     */
+    private void checkAbort() throws InterruptedException, TimeoutException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        if (deadline != NO_DEADLINE && System.nanoTime() - deadline > 0) {
+            throw new TimeoutException();
+        }
+    }
+
+    /**
+     * Returns the best pit stored for the given board.
+     *
+     * @param board The board to look up.
+     * @return The best pit or -1 if there is none.
+     */
+    private int hashPit(GameBoard board) {
+        if (table == null) {
+            return -1;
+        }
+        int entry = table.probe(board.getHash());
+        return entry < 0 ? -1 : table.getBestPit(entry);
+    }
+
+    /**
+     * Returns a bound for the successors such that every successor value
+     * below it keeps the parent value below {@code alpha}, despite rounding.
+     *
+     * @param alpha The bound of the parent.
+     * @param ownValue The evaluation of the parent itself.
+     * @return The bound of the successors.
+     */
+    private static double lowerChildBound(double alpha, double ownValue) {
+        if (Double.isInfinite(alpha)) {
+            return alpha;
+        }
+        double bound = alpha - ownValue;
+        while (bound + ownValue > alpha) {
+            bound = Math.nextDown(bound);
+        }
+        return bound;
+    }
+
+    /**
+     * Returns a bound for the successors such that every successor value
+     * above it keeps the parent value above {@code beta}, despite rounding.
+     *
+     * @param beta The bound of the parent.
+     * @param ownValue The evaluation of the parent itself.
+     * @return The bound of the successors.
+     */
+    private static double upperChildBound(double beta, double ownValue) {
+        if (Double.isInfinite(beta)) {
+            return beta;
+        }
+        double bound = beta - ownValue;
+        while (bound + ownValue < beta) {
+            bound = Math.nextUp(bound);
+        }
+        return bound;
+    }
+
+    /**
+     * Writes the legal moves of the current player into {@code moves}. The
+     * given first pit comes first, then moves whose last seed reaches the own
+     * store, then captures.
+     *
+     * @param board The board to read.
+     * @param moves The array to fill with pit numbers from 0 to
+     *        {@code pitsPerPlayer - 1}.
+     * @param firstPit The pit to try first or -1 if there is none.
+     * @return The number of legal moves.
+     */
+    static int orderMoves(GameBoard board, int[] moves, int firstPit) {
+        int pitsPerPlayer = board.getPitsPerPlayer();
+        int numOfMoves = 0;
+        for (int i = 0; i < pitsPerPlayer; i++) {
+            if (board.getSeeds(board.pitOfCurrentPlayer(i)) == 0) {
+                continue;
+            }
+            int kind = i == firstPit ? EXTRA_TURN + 1 : moveKind(board, i);
+            // Sorts by kind while inserting; the kind is kept in the upper
+            // bits until all moves are in place.
+            int entry = kind << KIND_SHIFT | i;
+            int k = numOfMoves++;
+            while (k > 0 && moves[k - 1] >>> KIND_SHIFT < kind) {
+                moves[k] = moves[k - 1];
+                k--;
+            }
+            moves[k] = entry;
+        }
+        for (int k = 0; k < numOfMoves; k++) {
+            moves[k] &= (1 << KIND_SHIFT) - 1;
+        }
+        return numOfMoves;
+    }
+
+    /**
+     * Classifies a legal move of the current player without executing it.
+     *
+     * @param board The board to read.
+     * @param i The non-empty pit to sow, counted from 0.
+     * @return {@link #EXTRA_TURN} if the last seed reaches the own store,
+     *         {@link #CAPTURE} if it captures the seeds of the opposite pit,
+     *         {@link #QUIET} otherwise.
+     */
+    static int moveKind(GameBoard board, int i) {
+        int pitsPerPlayer = board.getPitsPerPlayer();
+        int lap = 2 * pitsPerPlayer + 1;
+        int seeds = board.getSeeds(board.pitOfCurrentPlayer(i));
+        // The position of the last seed, counted from the own first pit
+        // over the own store to the last pit of the opponent.
+        int last = (i + seeds) % lap;
+        if (last == pitsPerPlayer) {
+            return EXTRA_TURN;
+        } else if (last > pitsPerPlayer) {
+            return QUIET;
+        }
+        // The last seed must be the only one in the own pit it reaches.
+        boolean empty = seeds < lap ? last != i
+                && board.getSeeds(board.pitOfCurrentPlayer(last)) == 0
+                : seeds == lap;
+        if (!empty) {
+            return QUIET;
+        }
+        // A sowing around the board reaches the opposite pit, too.
+        if (last <= i || board.getSeeds(oppositePit(board, last)) > 0) {
+            return CAPTURE;
+        }
+        return QUIET;
+    }
+
+    /**
+     * Returns the opponent's pit opposite to a pit of the current player.
+     *
+     * @param board The board to read.
+     * @param i The pit of the current player, counted from 0.
+     * @return The number of the opposite pit on the board.
+     */
+    private static int oppositePit(GameBoard board, int i) {
+        return 2 * board.getPitsPerPlayer() - board.pitOfCurrentPlayer(i);
+    }
+
+    private void ensureCapacity(int plies, int pitsPerPlayer) {
+        if (moveOrder.length < plies || moveOrder[0].length != pitsPerPlayer) {
+            moveOrder = new int[plies][pitsPerPlayer];
+        }
+        if (pv.length < plies + 1) {
+            pv = new int[plies + 1][plies + 1];
+            pvLength = new int[plies + 1];
+        }
+    }
+}
@@ -23,6 +23,31 @@ public interface Board extends Cloneable {
      */
     int DEFAULT_SEEDS_PER_PIT = 3;
     
+    /**
+     * The highest number of pits per player offered to the players.
+     */
+    int MAX_PITS_PER_PLAYER = 12;
+    
+    /**
+     * The highest initial number of seeds per pit offered to the players.
+     */
+    int MAX_SEEDS_PER_PIT = 12;
+    
+    /**
+     * The level of a new game.
+     */
+    int DEFAULT_LEVEL = 3;
+    
+    /**
+     * The highest level offered to the players.
+     */
+    int MAX_LEVEL = 10;
+    
+    /**
+     * The player who opens a new game.
+     */
+    Player DEFAULT_OPENING_PLAYER = Player.HUMAN;
+    
     /**
      * Gets the player who should open or already has opened the game by the
      * initial move.
@@ -67,6 +92,30 @@ public interface Board extends Cloneable {
      */
     Board machineMove() throws InterruptedException;
 
+    /**
+     * Gets the statistics of the last search of {@link #machineMove()}.
+     *
+     * @return The statistics or {@code null} if they are disabled or the
+     *         machine has not moved yet.
+     */
+    SearchStatistics getSearchStatistics();
+
+    /**
+     * Gets the result of the last search of {@link #machineMove()}: the
+     * chosen pit, its score and the principal variation.
+     *
+     * @return The result or {@code null} if the machine has not moved yet.
+     */
+    SearchResult getSearchResult();
+
+    /**
+     * Enables or disables the statistics of the machine's searches. They are
+     * disabled by default, since counting slows the search down a little.
+     *
+     * @param enabled {@code true} to collect statistics.
+     */
+    void setStatisticsEnabled(boolean enabled);
+
     /**
      * Sets the skill level of the machine.
      * 
@@ -0,0 +1,94 @@
+package kalah.model;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+
+/**
+ * Answers instantly from an {@link OpeningBook} while the position is in
+ * the book at the level of the search and leaves all other positions to
+ * another engine.
+ */
+public class BookEngine implements Engine {
+
+    /**
+     * The system property naming the opening book file the view, the shell
+     * and the server play with, e.g., {@code -Dkalah.book=kalah.book}.
+     */
+    public static final String BOOK_PROPERTY = "kalah.book";
+
+    private final OpeningBook book;
+    private final Engine engine;
+
+    /**
+     * Creates an engine that looks up positions in the given book.
+     *
+     * @param book The opening book.
+     * @param engine The engine that chooses the moves in positions that are
+     *        not in the book.
+     * @throws IllegalArgumentException If a parameter is {@code null}.
+     */
+    public BookEngine(OpeningBook book, Engine engine) {
+        if (book == null || engine == null) {
+            throw new IllegalArgumentException();
+        }
+        this.book = book;
+        this.engine = engine;
+    }
+
+    /**
+     * Puts the opening book named by the system property
+     * {@value #BOOK_PROPERTY} in front of an engine, if the property is set.
+     *
+     * @param engine The engine that chooses the moves not in the book.
+     * @return The engine with the book or the given engine.
+     * @throws UncheckedIOException If the book cannot be mapped.
+     */
+    public static Engine withOptionalBook(Engine engine) {
+        String file = System.getProperty(BOOK_PROPERTY);
+        if (file == null) {
+            return engine;
+        }
+        try {
+            return new BookEngine(OpeningBook.map(Paths.get(file)), engine);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int selectPit(GameBoard board, int level)
+            throws InterruptedException {
+        return selectPit(board, level, null);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int selectPit(GameBoard board, int level,
+                         SearchStatistics statistics)
+            throws InterruptedException {
+        return analyze(board, level, statistics).getPit();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public SearchResult analyze(GameBoard board, int level,
+                                SearchStatistics statistics)
+            throws InterruptedException {
+        int pit = book.lookup(board, level);
+        if (pit >= 0) {
+            if (statistics != null) {
+                statistics.countCacheHit();
+            }
+            return SearchResult.of(pit);
+        }
+        return engine.analyze(board, level, statistics);
+    }
+}
@@ -0,0 +1,55 @@
+package kalah.model;
+
+/**
+ * Strategy that chooses the moves of the machine on a {@link GameBoard}.
+ */
+public interface Engine {
+
+    /**
+     * Chooses the pit the machine sows next. The given board must not be
+     * changed by the engine.
+     *
+     * @param board The board on which the machine has to move.
+     * @param level The search depth, must be at least 1.
+     * @return The number of the chosen machine pit.
+     * @throws InterruptedException {@link Thread#interrupt()} was called on the
+     *         executing thread. Thus, the execution stops prematurely.
+     */
+    int selectPit(GameBoard board, int level) throws InterruptedException;
+
+    /**
+     * Chooses the pit the machine sows next and fills the given statistics.
+     * Engines without statistics ignore them.
+     *
+     * @param board The board on which the machine has to move.
+     * @param level The search depth, must be at least 1.
+     * @param statistics The statistics to fill or {@code null} if they are
+     *        disabled.
+     * @return The number of the chosen machine pit.
+     * @throws InterruptedException {@link Thread#interrupt()} was called on the
+     *         executing thread. Thus, the execution stops prematurely.
+     */
+    default int selectPit(GameBoard board, int level,
+                          SearchStatistics statistics)
+            throws InterruptedException {
+        return selectPit(board, level);
+    }
+
+    /**
+     * Chooses the pit the machine sows next and reports the search behind
+     * the choice. Engines that only choose a pit report the pit alone.
+     *
+     * @param board The board on which the machine has to move.
+     * @param level The search depth, must be at least 1.
+     * @param statistics The statistics to fill or {@code null} if they are
+     *        disabled.
+     * @return The result of the search.
+     * @throws InterruptedException {@link Thread#interrupt()} was called on the
+     *         executing thread. Thus, the execution stops prematurely.
+     */
+    default SearchResult analyze(GameBoard board, int level,
+                                 SearchStatistics statistics)
+            throws InterruptedException {
+        return SearchResult.of(selectPit(board, level, statistics));
+    }
+}
@@ -0,0 +1,145 @@
+package kalah.model;
+
+/**
+ * The evaluation function of a {@link GameBoard}. The possible captures and
+ * the threatened pits are counted directly on the pits, using a buffer that
+ * is reused, so no objects are created. An evaluator belongs to exactly one
+ * board.
+ *
+ * Both terms are recounted on every evaluation, while the seeds in the pits
+ * of each player are kept up to date by the board. Keeping the best capture
+ * per pit up to date instead was measured to slow the search down by a
+ * factor of 1.7 to 4: every sown seed may change the captures into up to
+ * four pits, and each of them takes a pass over the pits of its player, so
+ * a sowing costs more than the two passes of a recount.
+ */
+final class Evaluator {
+    private final GameBoard board;
+    private final int pitsPerPlayer;
+    private final int humanStore;
+    private final int machineStore;
+    private final int threatThreshold;
+    private final int[] capturedSeeds;
+
+    /**
+     * Creates an evaluator for the given board.
+     *
+     * @param board The board to evaluate.
+     */
+    Evaluator(GameBoard board) {
+        this.board = board;
+        pitsPerPlayer = board.getPitsPerPlayer();
+        humanStore = pitsPerPlayer;
+        machineStore = 2 * pitsPerPlayer + 1;
+        threatThreshold = 2 * board.getSeedsPerPit();
+        capturedSeeds = new int[machineStore + 1];
+    }
+
+    /**
+     * Evaluates the board from the machine's point of view.
+     *
+     * @param seeds The pits and stores of the board.
+     * @param ply The distance of the board to the search root.
+     * @return The board value.
+     */
+    double evaluate(int[] seeds, int ply) {
+        double scoreS = seeds[machineStore] - 1.5 * seeds[humanStore];
+        double scoreHuman = captureScore(seeds, 0, humanStore, machineStore);
+        double scoreMachine = captureScore(seeds, humanStore + 1,
+                machineStore, humanStore);
+        double scoreC = scoreMachine - 1.5 * scoreHuman;
+        double scoreP = threatenedPits(seeds, humanStore + 1, machineStore)
+                - 1.5 * threatenedPits(seeds, 0, humanStore);
+        return 3 * scoreS + scoreC + scoreP + scoreV(ply);
+    }
+
+    /**
+     * Returns score v, the rating of a finished game.
+     *
+     * @param ply The distance of the board to the search root.
+     * @return Score v.
+     */
+    private double scoreV(int ply) {
+        double machine = 0;
+        double human = 0;
+        if (board.isGameOver()) {
+            Player winner = board.getWinner();
+            if (winner == Player.MACHINE) {
+                machine = 500.0 / ply;
+            } else if (winner == Player.HUMAN) {
+                human = 500.0 / ply;
+            }
+        }
+        return machine - 1.5 * human;
+    }
+
+    /**
+     * Returns score c of one player: the seeds she could capture, counting
+     * each of her empty pits once with its best capture.
+     *
+     * @param seeds The pits and stores of the board.
+     * @param firstPit The first pit of the player.
+     * @param lastPit The store of the player.
+     * @param otherStore The store of the opponent.
+     * @return Score c of the player.
+     */
+    private int captureScore(int[] seeds, int firstPit, int lastPit,
+                             int otherStore) {
+        int sum = 0;
+        for (int i = firstPit; i < lastPit; i++) {
+            int targetPit = i + seeds[i];
+            if (targetPit == otherStore) {
+                targetPit++;
+            }
+            if (targetPit >= seeds.length) {
+                targetPit = targetPit - seeds.length;
+            }
+            if (seeds[i] > 0
+                    && seeds[i] <= 2 * pitsPerPlayer + 1
+                    && (seeds[targetPit] == 0 || targetPit == i)
+                    && targetPit < lastPit && targetPit >= firstPit) {
+                int oppositeSeeds = seeds[oppositePit(targetPit)];
+                if (targetPit <= i) {
+                    oppositeSeeds += 1;
+                }
+                if (oppositeSeeds > capturedSeeds[targetPit]) {
+                    sum += oppositeSeeds - capturedSeeds[targetPit];
+                    capturedSeeds[targetPit] = oppositeSeeds;
+                }
+            }
+        }
+        for (int i = firstPit; i < lastPit; i++) {
+            capturedSeeds[i] = 0;
+        }
+        return sum;
+    }
+
+    /**
+     * Returns score p of one player: the number of her empty pits whose
+     * opposite pit holds at least twice the initial number of seeds.
+     *
+     * @param seeds The pits and stores of the board.
+     * @param firstPit The first pit of the player.
+     * @param lastPit The store of the player.
+     * @return Score p of the player.
+     */
+    private int threatenedPits(int[] seeds, int firstPit, int lastPit) {
+        int sum = 0;
+        for (int i = firstPit; i < lastPit; i++) {
+            if (seeds[i] == 0 && seeds[oppositePit(i)] >= threatThreshold) {
+                sum++;
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the opposite pit of the given pit.
+     *
+     * @param pit The given pit.
+     * @return The opposite pit.
+     */
+    private int oppositePit(int pit) {
+        return machineStore - 1 - pit;
+    }
+}
@@ -6,6 +6,22 @@ import java.util.Arrays;
  * A class for the mancala game, includes the game logic and help methods*.
  */
 public class GameBoard implements Board {
+    private static final long PIT_MASK = 0xFF;
+    private static final long SEEDS_MASK = 0xFFFF;
+    private static final int SEEDS_SHIFT = 8;
+    private static final int CAPTURE_SHIFT = 24;
+    private static final int SOURCE_SHIFT = 40;
+    private static final int TARGET_SHIFT = 48;
+    private static final long CAPTURE_FLAG = 1L << 56;
+    private static final long MACHINE_FLAG = 1L << 57;
+
+    /**
+     * Whether the running seed totals are recounted and compared after every
+     * change of the board. Enabled by the system property
+     * {@code kalah.checkSeedTotals}, e.g., while testing.
+     */
+    private static final boolean CHECK_SEED_TOTALS
+            = Boolean.getBoolean("kalah.checkSeedTotals");
     private  Player openingPlayer;
     private int level;
     private  int pitsPerPlayer;
@@ -16,6 +32,15 @@ public class GameBoard implements Board {
     private  int machineStore;
     private int targetPit;
     private Player currPlayer;
+    private int humanPitSeeds;
+    private int machinePitSeeds;
+    private Engine engine;
+    private Zobrist zobrist;
+    private long hash;
+    private Evaluator evaluator;
+    private boolean statisticsEnabled;
+    private SearchStatistics statistics;
+    private SearchResult searchResult;
 
 
     /**
@@ -52,6 +77,8 @@ public class GameBoard implements Board {
                 board[i] = seedsPerPit;
             }
         }
+        humanPitSeeds = pitsPerPlayer * seedsPerPit;
+        machinePitSeeds = pitsPerPlayer * seedsPerPit;
     }
 
     /**
@@ -103,27 +130,28 @@ public class GameBoard implements Board {
         }
         gb.sourcePit = pit;
         int numOfSeeds = gb.board[pit];
-        gb.board[pit] = 0;
+        gb.changeSeeds(pit, 0);
         while (numOfSeeds > 0) {
             pit++;
             if (pit == machineStore) {
                 pit = 0;
             }
-            gb.board[pit]++;
+            gb.changeSeeds(pit, gb.board[pit] + 1);
             if (numOfSeeds == 1) {
                 gb.targetPit = pit;
                 if (gb.board[targetPit] == 1 && gb.targetPit < humanStore
                         && gb.board[oppositePit(gb.targetPit)] > 0
                         && pit != oppositePit(pit)) {
-                    gb.board[humanStore]
-                            += gb.board[oppositePit(gb.targetPit)] + 1;
-                    gb.board[targetPit] = 0;
-                    gb.board[oppositePit(targetPit)] = 0;
+                    gb.changeSeeds(humanStore, gb.board[humanStore]
+                            + gb.board[oppositePit(gb.targetPit)] + 1);
+                    gb.changeSeeds(targetPit, 0);
+                    gb.changeSeeds(oppositePit(targetPit), 0);
 
                 }
             }
             numOfSeeds--;
         }
+        gb.checkSeedTotals();
         return gb;
     }
 
@@ -135,23 +163,82 @@ public class GameBoard implements Board {
         if (isGameOver() || currPlayer != Player.MACHINE) {
             throw new IllegalMoveException();
         }
-        int bestPit = -1;
-        Node root = createTree(this, level);
-        double bestValue = max(root, root.getGameBoard().level);
-        root.setBoardVal(evaluateGameBoard(root.getGameBoard(), -1));
-        bestValue -= root.getBoardVal();
-        for (int i = 0; i < pitsPerPlayer; i++) {
-            if (root.getChildren().get(i) == null) {
-                continue;
-            }
-            if (root.getChildren().get(i).getBoardVal() == bestValue) {
-                bestPit = i + humanStore + 1;
-                sourcePit = bestPit;
-                targetPit = root.getChildren().get(i).getGameBoard().targetPit;
-                break;
-            }
+        SearchStatistics searchStatistics = statisticsEnabled
+                ? new SearchStatistics() : null;
+        long start = System.nanoTime();
+        SearchResult result = getEngine().analyze(this, level,
+                searchStatistics);
+        if (searchStatistics != null) {
+            searchStatistics.setElapsedNanos(System.nanoTime() - start);
+        }
+        statistics = searchStatistics;
+        searchResult = result;
+        return machineMoveOnBoard(result.getPit(), this);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public SearchStatistics getSearchStatistics() {
+        return statistics;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public SearchResult getSearchResult() {
+        return searchResult;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setStatisticsEnabled(boolean enabled) {
+        statisticsEnabled = enabled;
+        if (!enabled) {
+            statistics = null;
+        }
+    }
+
+    /**
+     * Sets the search engine used by {@link #machineMove()}. Engines can be
+     * exchanged at any time, e.g., to compare their results on the same
+     * board.
+     *
+     * The engine is not copied by {@link #clone()}: the board and all its
+     * copies share it. Engines like the {@link AlphaBetaEngine} keep state
+     * between searches and are not thread-safe, so a board and its copies
+     * must not search at the same time; set an engine of its own on a copy
+     * that is searched on another thread. In turn, sharing keeps the
+     * transposition table of a game when the view takes back moves from
+     * copies.
+     *
+     * @param engine The engine that chooses the machine moves.
+     * @throws IllegalArgumentException If the given engine is {@code null}.
+     */
+    public void setEngine(Engine engine) {
+        if (engine == null) {
+            throw new IllegalArgumentException();
+        }
+        this.engine = engine;
+    }
+
+    /**
+     * Returns the search engine used by {@link #machineMove()}. Unless
+     * another engine was set, an {@link AlphaBetaEngine} is created on the
+     * first call, so boards on which the machine never moves do not carry
+     * its transposition table.
+     *
+     * @return The current engine.
+     */
+    public Engine getEngine() {
+        if (engine == null) {
+            engine = new AlphaBetaEngine();
         }
-        return machineMoveOnBoard(bestPit, this);
+        return engine;
     }
 
     /**
@@ -171,11 +258,7 @@ public class GameBoard implements Board {
      */
     @Override
     public boolean isGameOver() {
-        int seedsOfPitsHuman
-                = getSeedsOfPlayer(Player.HUMAN) - board[humanStore];
-        int seedsOfPitsMachine
-                = getSeedsOfPlayer(Player.MACHINE) - board[machineStore];
-        return seedsOfPitsHuman == 0 || seedsOfPitsMachine == 0;
+        return humanPitSeeds == 0 || machinePitSeeds == 0;
     }
 
     /**
@@ -245,19 +328,17 @@ public class GameBoard implements Board {
     public int getSeedsOfPlayer(Player player) {
         int sum = 0;
         if (player.equals(Player.HUMAN)) {
-            for (int i = 0; i <= humanStore; i++) {
-                sum += board[i];
-            }
+            sum = humanPitSeeds + board[humanStore];
         } else if (player.equals(Player.MACHINE)) {
-            for (int i = humanStore + 1; i <= machineStore; i++) {
-                sum += board[i];
-            }
+            sum = machinePitSeeds + board[machineStore];
         }
         return sum;
     }
 
     /**
-     * {@inheritDoc}
+     * {@inheritDoc} The copy shares the engine of this board, see
+     * {@link #setEngine(Engine)}. If no engine was set or created yet, the
+     * copy creates one of its own on its first machine move.
      */
     @Override
     public Board clone() {
@@ -269,12 +350,41 @@ public class GameBoard implements Board {
             copy.currPlayer = currPlayer;
             copy.level = level;
             copy.board = board.clone();
+            copy.evaluator = null;
         } catch (CloneNotSupportedException e) {
             throw new RuntimeException(e);
         }
         return copy;
     }
 
+    /**
+     * Returns a copy of this board with the players swapped: the pits and
+     * the store of the human become those of the machine and vice versa,
+     * and so do the opening and the current player. Thus, an engine can
+     * choose the moves of the human by choosing the machine moves on the
+     * mirrored board.
+     *
+     * @return The mirrored board.
+     */
+    public GameBoard mirror() {
+        GameBoard mirror = (GameBoard) clone();
+        int offset = pitsPerPlayer + 1;
+        for (int i = 0; i < offset; i++) {
+            mirror.board[i] = board[i + offset];
+            mirror.board[i + offset] = board[i];
+        }
+        mirror.humanPitSeeds = machinePitSeeds;
+        mirror.machinePitSeeds = humanPitSeeds;
+        mirror.sourcePit = (sourcePit + offset) % board.length;
+        mirror.targetPit = (targetPit + offset) % board.length;
+        mirror.openingPlayer = openingPlayer.other();
+        mirror.currPlayer = currPlayer.other();
+        mirror.zobrist = null;
+        mirror.statistics = null;
+        mirror.searchResult = null;
+        return mirror;
+    }
+
     /**
      * Returns the digits number of the maximum value in board.
      *
@@ -331,291 +441,284 @@ public class GameBoard implements Board {
         return sb.toString();
     }
     /**
-     * Method to maximize player.
+     * Returns the player who has to move on this board.
      *
-     * @param node The given node.
-     * @param depth The given depth.
-     * @return The best value.
-     */
-    private double max(Node node, int depth) {
-        if (depth == 0 || node.getGameBoard().isGameOver()) {
-            return evaluateGameBoard(node.getGameBoard(), depth);
-        }
-        double bestValue = Integer.MIN_VALUE;
-        for (Node childNode : node.getChildren()) {
-            if (childNode == null) {
-                continue;
-            }
-            double tempValue;
-            if (childNode.getGameBoard().currPlayer == Player.MACHINE) {
-                tempValue =
-                        Math.max(max(childNode, depth - 1), bestValue);
-
-            } else {
-                tempValue =
-                        Math.max(min(childNode, depth - 1), bestValue);
-            }
-            childNode.setBoardVal(tempValue);
-            if (tempValue > bestValue) {
-                bestValue = tempValue;
-            }
-        }
-        return bestValue + evaluateGameBoard(node.getGameBoard(), depth);
-
+     * @return The current player.
+     */
+    Player getCurrentPlayer() {
+        return currPlayer;
     }
 
     /**
-     * Method to minimize player.
+     * Sets the player who has to move on this board.
      *
-     * @param node The given node.
-     * @param depth The given depth.
-     * @return The best value.
-     */
-    private double min(Node node, int depth) {
-        if (depth == 0 || node.getGameBoard().isGameOver()) {
-            return evaluateGameBoard(node.getGameBoard(), depth);
-        }
-        double bestValue = Integer.MAX_VALUE;
-        for (Node childNode : node.getChildren()) {
-            if (childNode == null) {
-                continue;
-            }
-            double tempValue;
-            if (childNode.getGameBoard().currPlayer == Player.HUMAN) {
-                tempValue = Math.min(min(childNode, depth - 1), bestValue);
+     * @param player The new current player.
+     */
+    void setCurrentPlayer(Player player) {
+        currPlayer = player;
+    }
 
-            } else {
-                tempValue = Math.min(max(childNode, depth - 1), bestValue);
-            }
-            childNode.setBoardVal(tempValue);
-            if (tempValue < bestValue) {
-                bestValue = tempValue;
-            }
-        }
-        return bestValue + evaluateGameBoard(node.getGameBoard(), depth);
+    /**
+     * Sets the number of seeds of the specified pit or store.
+     *
+     * @param pit The number of the pit.
+     * @param seeds The new content of the pit.
+     */
+    void setSeeds(int pit, int seeds) {
+        changeSeeds(pit, seeds);
+        checkSeedTotals();
     }
 
     /**
-     * Method to create tree according to the given level.
+     * Returns the number of the {@code i}-th pit of the current player.
      *
-     * @param gb The given game board.
-     * @param level The given level.
-     * @return The root node.
+     * @param i The pit of the current player, counted from 0 to
+     *        {@code pitsPerPlayer - 1} in her direction of play.
+     * @return The ordering number of the pit on the board.
      */
-    private Node createTree(GameBoard gb, int level) {
-        GameBoard cBoard = (GameBoard) gb.clone();
-        Node root = new Node(cBoard, level);
-        createSubTree(root, level);
-        return root;
+    int pitOfCurrentPlayer(int i) {
+        return currPlayer == Player.HUMAN ? i : i + humanStore + 1;
     }
 
     /**
-     * Create subtree for each Node.
+     * Executes the move of the current player from her {@code i}-th pit on
+     * this board and passes the turn on according to {@link #next()}. The
+     * returned record holds everything {@link #undoMove(long)} needs to
+     * restore the previous state, so no objects are created.
      *
-     * @param node  Node to read.
-     * @param level Level to read.
-     */
-    private void createSubTree(Node node, int level) {
-        if (level > 0 && !node.getGameBoard().isGameOver()) {
-            GameBoard tmp = node.getGameBoard();
-            for (int i = 0; i < pitsPerPlayer; i++) {
-                GameBoard board = (GameBoard) tmp.clone();
-                if ((board.board[i] != 0 && board.currPlayer == Player.HUMAN)
-                        || (board.board[i + humanStore + 1] != 0
-                        && board.currPlayer == Player.MACHINE)) {
-                    makeMove(i, board.currPlayer, board);
-                    Node chNode = new Node(board, i);
-                    node.addChild(i, chNode);
-                    board.currPlayer = board.next();
-                    createSubTree(chNode, level - 1);
-                } else {
-                    node.addChild(i, null);
-                }
-            }
+     * @param i The non-empty pit of the current player, counted from 0 to
+     *        {@code pitsPerPlayer - 1} in her direction of play.
+     * @return The record of the move.
+     */
+    long applyMove(int i) {
+        boolean human = currPlayer == Player.HUMAN;
+        int pit = pitOfCurrentPlayer(i);
+        int ownStore = human ? humanStore : machineStore;
+        int otherStore = human ? machineStore : humanStore;
+        int numOfSeeds = board[pit];
+        long move = pit | (long) numOfSeeds << SEEDS_SHIFT
+                | (long) sourcePit << SOURCE_SHIFT
+                | (long) targetPit << TARGET_SHIFT
+                | (human ? 0L : MACHINE_FLAG);
+        changeSeeds(pit, 0);
+        int target = pit;
+        for (int k = numOfSeeds; k > 0; k--) {
+            target = nextPit(target, otherStore);
+            changeSeeds(target, board[target] + 1);
         }
+        if (board[target] == 1 && target != ownStore
+                && (human == (target < humanStore))
+                && board[oppositePit(target)] > 0) {
+            int captured = board[oppositePit(target)];
+            changeSeeds(ownStore, board[ownStore] + captured + 1);
+            changeSeeds(target, 0);
+            changeSeeds(oppositePit(target), 0);
+            move |= (long) captured << CAPTURE_SHIFT | CAPTURE_FLAG;
+        }
+        sourcePit = pit;
+        targetPit = target;
+        if (target != ownStore) {
+            changePlayer(currPlayer.other());
+        }
+        checkSeedTotals();
+        return move;
     }
 
-    private void makeMove(int pit, Player player, GameBoard gameBoard) {
-        if (player == Player.HUMAN) {
-            gameBoard.humanMove(pit, gameBoard);
-        } else {
-            gameBoard.machineMoveOnBoard(pit + humanStore + 1, gameBoard);
+    /**
+     * Takes back the last move executed by {@link #applyMove(int)}.
+     *
+     * @param move The record returned by {@link #applyMove(int)}.
+     */
+    void undoMove(long move) {
+        boolean human = (move & MACHINE_FLAG) == 0;
+        int pit = (int) (move & PIT_MASK);
+        int numOfSeeds = (int) (move >>> SEEDS_SHIFT & SEEDS_MASK);
+        int otherStore = human ? machineStore : humanStore;
+        if ((move & CAPTURE_FLAG) != 0) {
+            int captured = (int) (move >>> CAPTURE_SHIFT & SEEDS_MASK);
+            int ownStore = human ? humanStore : machineStore;
+            changeSeeds(ownStore, board[ownStore] - captured - 1);
+            changeSeeds(targetPit, 1);
+            changeSeeds(oppositePit(targetPit), captured);
         }
+        int target = pit;
+        for (int k = numOfSeeds; k > 0; k--) {
+            target = nextPit(target, otherStore);
+            changeSeeds(target, board[target] - 1);
+        }
+        changeSeeds(pit, numOfSeeds);
+        sourcePit = (int) (move >>> SOURCE_SHIFT & PIT_MASK);
+        targetPit = (int) (move >>> TARGET_SHIFT & PIT_MASK);
+        changePlayer(human ? Player.HUMAN : Player.MACHINE);
+        checkSeedTotals();
     }
 
     /**
-     * Method to make a machine move.
+     * Sets the content of a pit and keeps the seed totals and the hash up to
+     * date.
      *
-     * @param pit The pit to move seeds from.
-     * @param gb The given game board.
-     * @return The game board after the move.
+     * @param pit The number of the pit.
+     * @param seeds The new content of the pit.
      */
-    private Board machineMoveOnBoard(int pit, GameBoard gb) {
-        gb.sourcePit = pit;
-        int numOfSeeds = gb.board[pit];
-        gb.board[pit] = 0;
-        while (numOfSeeds > 0) {
-            pit++;
-            if (pit == board.length) {
-                pit = 0;
-            } else if (pit == humanStore) {
-                pit++;
-            }
-            gb.board[pit]++;
-            if (numOfSeeds == 1) {
-                gb.targetPit = pit;
-                if (gb.targetPit < machineStore && gb.targetPit > humanStore
-                        && gb.board[gb.targetPit] == 1
-                        && gb.board[oppositePit(gb.targetPit)] > 0) {
-                    gb.board[machineStore]
-                            += gb.board[oppositePit(targetPit)] + 1;
-                    gb.board[gb.targetPit] = 0;
-                    gb.board[oppositePit(targetPit)] = 0;
-                }
-            }
-            numOfSeeds--;
+    private void changeSeeds(int pit, int seeds) {
+        if (zobrist != null) {
+            hash ^= zobrist.key(pit, board[pit]) ^ zobrist.key(pit, seeds);
         }
-        return gb;
+        if (pit < humanStore) {
+            humanPitSeeds += seeds - board[pit];
+        } else if (pit > humanStore && pit < machineStore) {
+            machinePitSeeds += seeds - board[pit];
+        }
+        board[pit] = seeds;
     }
 
     /**
-     * Returns score c according to the player.
+     * Recounts the seeds in the pits of both players and compares them with
+     * the running totals, if enabled by {@link #CHECK_SEED_TOTALS}.
      *
-     * @param seeds The given board.
-     * @param player The given player.
-     * @return Score c of the given player.
+     * @throws IllegalStateException If a total is out of date.
      */
-    private double calculateScoreC(int[] seeds, Player player) {
-        int[] capturedSeeds = new int[seeds.length];
-        int sum = 0;
-        int sourcePit = 0;
-        int store = machineStore;
-        int lastPit = humanStore;
-
-        if (player == Player.MACHINE) {
-            sourcePit = pitsPerPlayer + 1;
-            lastPit = machineStore;
-            store = humanStore;
-        }
-        for (int i = sourcePit; i < lastPit; i++) {
-            int targetPit = i + seeds[i];
-            if (targetPit == store) {
-                targetPit++;
-            }
-            if (targetPit >= board.length) {
-                targetPit = targetPit - board.length;
-            }
-            if (seeds[i] > 0
-                    && seeds[i] <= 2 * pitsPerPlayer + 1
-                    && (seeds[targetPit] == 0 || targetPit == i)
-                    && targetPit < lastPit && targetPit >= sourcePit) {
-                int oppositeSeeds = seeds[oppositePit(targetPit)];
-                if (targetPit <= i) {
-                    oppositeSeeds += 1;
-                }
-                if (oppositeSeeds > capturedSeeds[targetPit]) {
-                    sum -= capturedSeeds[targetPit];
-                    sum += oppositeSeeds;
-                    capturedSeeds[targetPit] = oppositeSeeds;
-                }
-            }
+    private void checkSeedTotals() {
+        if (!CHECK_SEED_TOTALS) {
+            return;
+        }
+        int human = 0;
+        int machine = 0;
+        for (int i = 0; i < humanStore; i++) {
+            human += board[i];
+        }
+        for (int i = humanStore + 1; i < machineStore; i++) {
+            machine += board[i];
+        }
+        if (human != humanPitSeeds || machine != machinePitSeeds) {
+            throw new IllegalStateException("Seed totals " + humanPitSeeds
+                    + "/" + machinePitSeeds + " differ from the pits "
+                    + human + "/" + machine);
         }
-        return sum;
     }
 
     /**
-     * Returns the opposite pit of the given pit.
+     * Sets the current player and keeps the hash up to date.
      *
-     * @param pit The given pit.
-     * @return The opposite pit.
+     * @param player The new current player.
      */
-    private int oppositePit(int pit) {
-        return machineStore - 1 - pit;
+    private void changePlayer(Player player) {
+        if (zobrist != null && player != currPlayer) {
+            hash ^= zobrist.machineToMoveKey();
+        }
+        currPlayer = player;
     }
 
     /**
-     * Returns score c.
+     * Starts hashing this board. From now on, {@link #applyMove(int)} and
+     * {@link #undoMove(long)} update the hash with the keys of the changed
+     * pits only.
      *
-     * @param board The given board.
-     * @return score c.
+     * @param zobrist The keys of the board's configuration.
      */
-    private double getScoreC(int[] board) {
-        double scoreHuman = calculateScoreC(board, Player.HUMAN);
-        double scoreMachine = calculateScoreC(board, Player.MACHINE);
+    void setZobrist(Zobrist zobrist) {
+        this.zobrist = zobrist;
+        hash = zobrist.hash(this);
+    }
 
-        return scoreMachine - 1.5 * scoreHuman;
+    /**
+     * Returns the Zobrist hash of the position. Only kept up to date after
+     * {@link #setZobrist(Zobrist)} was called and as long as the board is
+     * changed by {@link #applyMove(int)} and {@link #undoMove(long)} only.
+     *
+     * @return The hash of the position.
+     */
+    long getHash() {
+        return hash;
     }
 
     /**
-     * Returns score s in the given board.
+     * Returns the key of the position for tables kept across searches and
+     * games, such as opening books and pondered replies. It is the Zobrist
+     * hash of the position, computed from scratch.
      *
-     * @param board The given board.
-     * @return Score s.
+     * @return The key of the position.
      */
-    private double computeScoreS(int[] board) {
-        return board[machineStore] - 1.5 *  board[humanStore];
+    long getPositionKey() {
+        return Zobrist.of(pitsPerPlayer, seedsPerPit).hash(this);
     }
 
     /**
-     * Returns score p in the given board.
+     * Returns the pit following {@code pit} in the direction of play, leaving
+     * out the store of the opponent.
      *
-     * @param board The given board.
-     * @return Score p.
+     * @param pit The given pit.
+     * @param otherStore The store of the opponent.
+     * @return The next pit.
      */
-    private double computeScoreP(int[] board) {
-        int sumHuman = 0;
-        int sumMachine = 0;
-        for (int i = 0; i < humanStore; i++) {
-            if (board[i] == 0 && board[oppositePit(i)] >= 2 * seedsPerPit) {
-                sumHuman++;
-            }
+    private int nextPit(int pit, int otherStore) {
+        pit++;
+        if (pit == board.length) {
+            pit = 0;
         }
-        for (int i = humanStore + 1; i < machineStore; i++) {
-            if (board[i] == 0 && board[oppositePit(i)] >= 2 * seedsPerPit) {
-                sumMachine++;
-            }
+        if (pit == otherStore) {
+            pit = pit + 1 == board.length ? 0 : pit + 1;
         }
-        return sumMachine - 1.5 * sumHuman;
+        return pit;
     }
 
     /**
-     * Returns total score v.
+     * Evaluates this board from the machine's point of view.
      *
-     * @param gameBoard The given game board.
-     * @param level The given level.
-     * @return Total score v.
+     * @param ply The number of moves between the root of the search and this
+     *        board. Won games are rated higher the earlier they are reached.
+     * @return The board value.
      */
-    private double computeScoreV(GameBoard gameBoard, int level) {
-        return calScoreV(gameBoard, Player.MACHINE, level)
-                - 1.5 * calScoreV(gameBoard, Player.HUMAN, level);
+    double evaluate(int ply) {
+        if (evaluator == null) {
+            evaluator = new Evaluator(this);
+        }
+        return evaluator.evaluate(board, ply);
     }
 
     /**
-     * Returns score v.
+     * Method to make a machine move.
      *
-     * @param gameBoard The given game board.
-     * @param player The given player.
-     * @param level The given level.
-     * @return Score v for the given player.
-     */
-    private double calScoreV(GameBoard gameBoard, Player player, int level) {
-        if (gameBoard.isGameOver() && gameBoard.getWinner() == player) {
-            return 500.0 / (this.level - level);
-        } else {
-            return 0;
+     * @param pit The pit to move seeds from.
+     * @param gb The given game board.
+     * @return The game board after the move.
+     */
+    private Board machineMoveOnBoard(int pit, GameBoard gb) {
+        gb.sourcePit = pit;
+        int numOfSeeds = gb.board[pit];
+        gb.changeSeeds(pit, 0);
+        while (numOfSeeds > 0) {
+            pit++;
+            if (pit == board.length) {
+                pit = 0;
+            } else if (pit == humanStore) {
+                pit++;
+            }
+            gb.changeSeeds(pit, gb.board[pit] + 1);
+            if (numOfSeeds == 1) {
+                gb.targetPit = pit;
+                if (gb.targetPit < machineStore && gb.targetPit > humanStore
+                        && gb.board[gb.targetPit] == 1
+                        && gb.board[oppositePit(gb.targetPit)] > 0) {
+                    gb.changeSeeds(machineStore, gb.board[machineStore]
+                            + gb.board[oppositePit(targetPit)] + 1);
+                    gb.changeSeeds(gb.targetPit, 0);
+                    gb.changeSeeds(oppositePit(targetPit), 0);
+                }
+            }
+            numOfSeeds--;
         }
+        gb.checkSeedTotals();
+        return gb;
     }
 
     /**
-     * Method to evaluate the game board.
+     * Returns the opposite pit of the given pit.
      *
-     * @param gameBoard The given gameBoard.
-     * @param level The given level.
-     * @return The board value.
+     * @param pit The given pit.
+     * @return The opposite pit.
      */
-    private double evaluateGameBoard(GameBoard gameBoard, int level) {
-        return 3 * computeScoreS(gameBoard.board) + getScoreC(gameBoard.board)
-                + computeScoreP(gameBoard.board)
-                + computeScoreV(gameBoard, level);
+    private int oppositePit(int pit) {
+        return machineStore - 1 - pit;
     }
 }
@@ -0,0 +1,111 @@
+package kalah.model;
+
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A search bounded by time instead of depth. It runs alpha-beta searches of
+ * increasing depth until its time budget is used up and then plays the best
+ * pit of the deepest search. If the last search was not completed, its best
+ * pit is played anyway if it was found to be at least as good as the best pit
+ * of the previous search, which is always searched first.
+ *
+ * The level of the board is not used. The deepening stops early if a search
+ * reached the end of the game on all paths.
+ */
+public class IterativeDeepeningEngine implements Engine {
+
+    /**
+     * The maximum depth of the searches.
+     */
+    public static final int MAX_DEPTH = 64;
+
+    private final long budgetNanos;
+    private final AlphaBetaEngine engine;
+    private int depthReached;
+
+    /**
+     * Creates an engine with the given time budget per move.
+     *
+     * @param budgetMillis The time in milliseconds per move.
+     * @throws IllegalArgumentException If the budget is less than 1.
+     */
+    public IterativeDeepeningEngine(long budgetMillis) {
+        this(budgetMillis, new AlphaBetaEngine());
+    }
+
+    /**
+     * Creates an engine with the given time budget per move that deepens the
+     * searches of the given engine.
+     *
+     * @param budgetMillis The time in milliseconds per move.
+     * @param engine The engine that executes the single searches.
+     * @throws IllegalArgumentException If the budget is less than 1.
+     */
+    public IterativeDeepeningEngine(long budgetMillis, AlphaBetaEngine engine) {
+        if (budgetMillis < 1) {
+            throw new IllegalArgumentException();
+        }
+        this.budgetNanos = budgetMillis * 1_000_000;
+        this.engine = engine;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int selectPit(GameBoard board, int level)
+            throws InterruptedException {
+        return selectPit(board, level, null);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int selectPit(GameBoard board, int level,
+                         SearchStatistics statistics)
+            throws InterruptedException {
+        return analyze(board, level, statistics).getPit();
+    }
+
+    /**
+     * {@inheritDoc} Each search tries the principal variation of the
+     * previous one first. The result of an interrupted search reports the
+     * depth it was started with.
+     */
+    @Override
+    public SearchResult analyze(GameBoard board, int level,
+                                SearchStatistics statistics)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + budgetNanos;
+        SearchResult result = engine.analyze(board, 1, statistics);
+        depthReached = 1;
+        for (int depth = 2; depth <= MAX_DEPTH && engine.isHorizonReached();
+             depth++) {
+            try {
+                result = engine.search(board, depth,
+                        result.getPrincipalVariation(), deadline, statistics);
+                depthReached = depth;
+            } catch (TimeoutException e) {
+                SearchResult partial = engine.getRootResult(depth);
+                if (partial != null) {
+                    result = partial;
+                }
+                break;
+            }
+        }
+        if (statistics != null) {
+            statistics.setDepth(depthReached);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the depth of the deepest completed search of the last move.
+     *
+     * @return The depth reached.
+     */
+    public int getDepthReached() {
+        return depthReached;
+    }
+}
@@ -0,0 +1,245 @@
+package kalah.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A read-only hash table of positions stored in a file and mapped into
+ * memory, e.g., for opening books. Opening a table only maps the file, its
+ * entries stay off the heap and are read directly from the mapping by
+ * {@link #find(long)}, so even large tables cost nothing at startup.
+ *
+ * The entries are found by a 64-bit key of the position, usually its
+ * {@link Zobrist} hash, which is equal in every run for the same game
+ * configuration. Each entry holds the key followed by a fixed number of
+ * value bytes. The entries form an open addressing table with linear
+ * probing that is at most half full; the key 0 marks an empty slot and is
+ * not allowed as a key.
+ *
+ * The file starts with a header of a magic number, the number of value
+ * bytes, the number of slots, the number of entries and a tag describing the
+ * contents, e.g., the game configuration. All numbers are big-endian.
+ */
+public final class MappedTable {
+    private static final int MAGIC = 0x4B4D5431;
+    private static final int HEADER_BYTES = 24;
+    private static final int KEY_BYTES = Long.BYTES;
+
+    private final ByteBuffer buffer;
+    private final int valueBytes;
+    private final int slotBytes;
+    private final int mask;
+    private final int size;
+    private final long tag;
+
+    private MappedTable(ByteBuffer buffer) throws IOException {
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a mapped table");
+        }
+        valueBytes = buffer.getInt(4);
+        int slots = buffer.getInt(8);
+        size = buffer.getInt(12);
+        tag = buffer.getLong(16);
+        slotBytes = KEY_BYTES + valueBytes;
+        if (valueBytes < 0 || slots <= 0 || Integer.bitCount(slots) != 1
+                || size >= slots || (long) slots * slotBytes
+                != buffer.capacity() - HEADER_BYTES) {
+            throw new IOException("Corrupt mapped table");
+        }
+        mask = slots - 1;
+        this.buffer = buffer;
+    }
+
+    /**
+     * Maps a table file into memory.
+     *
+     * @param file The file written by a {@link Builder}.
+     * @return The table.
+     * @throws IOException If the file cannot be mapped or is no table.
+     */
+    public static MappedTable map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.READ)) {
+            return new MappedTable(channel.map(FileChannel.MapMode.READ_ONLY,
+                    0, channel.size()));
+        }
+    }
+
+    /**
+     * Returns the tag given to the {@link Builder}.
+     *
+     * @return The tag of the table.
+     */
+    public long getTag() {
+        return tag;
+    }
+
+    /**
+     * Returns the number of entries.
+     *
+     * @return The number of entries.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of value bytes of every entry.
+     *
+     * @return The number of value bytes.
+     */
+    public int getValueBytes() {
+        return valueBytes;
+    }
+
+    /**
+     * Looks up the entry of a key.
+     *
+     * @param key The key of the position, not 0.
+     * @return The offset of the values of the entry for the getters or -1 if
+     *         there is no entry for the key.
+     */
+    public int find(long key) {
+        int slot = index(key, mask);
+        while (true) {
+            int offset = HEADER_BYTES + slot * slotBytes;
+            long stored = buffer.getLong(offset);
+            if (stored == key) {
+                return offset + KEY_BYTES;
+            } else if (stored == 0) {
+                return -1;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Reads a value byte of an entry.
+     *
+     * @param entry The offset returned by {@link #find(long)}.
+     * @param index The index of the byte among the values.
+     * @return The signed byte.
+     */
+    public byte getByte(int entry, int index) {
+        return buffer.get(entry + index);
+    }
+
+    /**
+     * Reads four value bytes of an entry as an int.
+     *
+     * @param entry The offset returned by {@link #find(long)}.
+     * @param index The index of the first byte among the values.
+     * @return The int.
+     */
+    public int getInt(int entry, int index) {
+        return buffer.getInt(entry + index);
+    }
+
+    /**
+     * Returns the first slot of a key.
+     *
+     * @param key The key.
+     * @param mask The number of slots minus one.
+     * @return The slot to start probing at.
+     */
+    private static int index(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32) & mask;
+    }
+
+    /**
+     * Collects the entries of a table and writes its file.
+     */
+    public static final class Builder {
+        private final int valueBytes;
+        private final long tag;
+        private final Map<Long, byte[]> entries = new HashMap<>();
+
+        /**
+         * Creates an empty table.
+         *
+         * @param valueBytes The number of value bytes of every entry.
+         * @param tag A description of the contents, e.g., the game
+         *        configuration.
+         * @throws IllegalArgumentException If the number of value bytes is
+         *         negative.
+         */
+        public Builder(int valueBytes, long tag) {
+            if (valueBytes < 0) {
+                throw new IllegalArgumentException();
+            }
+            this.valueBytes = valueBytes;
+            this.tag = tag;
+        }
+
+        /**
+         * Adds or replaces an entry.
+         *
+         * @param key The key of the position, not 0.
+         * @param values The value bytes, exactly as many as given to the
+         *        constructor.
+         * @return This builder.
+         * @throws IllegalArgumentException If the key is 0 or the number of
+         *         values does not fit.
+         */
+        public Builder put(long key, byte[] values) {
+            if (key == 0 || values.length != valueBytes) {
+                throw new IllegalArgumentException();
+            }
+            entries.put(key, values.clone());
+            return this;
+        }
+
+        /**
+         * Returns the number of entries added so far.
+         *
+         * @return The number of entries.
+         */
+        public int size() {
+            return entries.size();
+        }
+
+        /**
+         * Writes the table file.
+         *
+         * @param file The file to write.
+         * @throws IOException If the file cannot be written.
+         */
+        public void write(Path file) throws IOException {
+            int slots = Integer.highestOneBit(Math.max(1, 2 * entries.size()));
+            if (slots < 2 * entries.size()) {
+                slots <<= 1;
+            }
+            int slotBytes = KEY_BYTES + valueBytes;
+            int mask = slots - 1;
+            ByteBuffer buffer = ByteBuffer.allocate(Math.addExact(HEADER_BYTES,
+                    Math.multiplyExact(slots, slotBytes)));
+            buffer.putInt(MAGIC).putInt(valueBytes).putInt(slots)
+                    .putInt(entries.size()).putLong(tag);
+            for (Map.Entry<Long, byte[]> entry : entries.entrySet()) {
+                long key = entry.getKey();
+                int slot = index(key, mask);
+                while (buffer.getLong(HEADER_BYTES + slot * slotBytes) != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                int offset = HEADER_BYTES + slot * slotBytes;
+                buffer.putLong(offset, key);
+                buffer.position(offset + KEY_BYTES);
+                buffer.put(entry.getValue());
+            }
+            buffer.rewind();
+            try (FileChannel channel = FileChannel.open(file,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package kalah.model;
+
+/**
+ * The full-width minimax search. Every board up to the given level is
+ * evaluated. The moves are executed and taken back depth-first on a single
+ * copy of the searched board, so only the current path is kept alive and no
+ * objects are created during the search.
+ */
+public class MinimaxEngine implements Engine {
+    private static final int CHECK_INTERVAL = 1024;
+    private long nodes;
+    private SearchStatistics statistics;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int selectPit(GameBoard board, int level)
+            throws InterruptedException {
+        return selectPit(board, level, null);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int selectPit(GameBoard board, int level,
+                         SearchStatistics statistics)
+            throws InterruptedException {
+        this.statistics = statistics;
+        if (statistics != null) {
+            statistics.countNode(0);
+            statistics.countExpansion();
+            statistics.setDepth(level);
+        }
+        GameBoard work = (GameBoard) board.clone();
+        int bestPit = -1;
+        double bestValue = 0;
+        for (int i = 0; i < work.getPitsPerPlayer(); i++) {
+            if (work.getSeeds(work.pitOfCurrentPlayer(i)) == 0) {
+                continue;
+            }
+            long move = work.applyMove(i);
+            double value = minimax(work, 1, level - 1);
+            work.undoMove(move);
+            if (bestPit == -1 || value > bestValue) {
+                bestPit = i;
+                bestValue = value;
+            }
+        }
+        return bestPit + work.getPitsPerPlayer() + 1;
+    }
+
+    /**
+     * Computes the value of a board. The machine maximizes, the human
+     * minimizes.
+     *
+     * @param node The board to evaluate.
+     * @param ply The distance of the board to the root.
+     * @param depth The remaining search depth.
+     * @return The value of the board.
+     * @throws InterruptedException If the executing thread was interrupted.
+     */
+    private double minimax(GameBoard node, int ply, int depth)
+            throws InterruptedException {
+        if (++nodes % CHECK_INTERVAL == 0 && Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        if (statistics != null) {
+            statistics.countNode(ply);
+        }
+        if (depth == 0 || node.isGameOver()) {
+            if (statistics != null) {
+                statistics.countLeafEvaluation();
+            }
+            return node.evaluate(ply);
+        }
+        if (statistics != null) {
+            statistics.countExpansion();
+        }
+        boolean maximizing = node.getCurrentPlayer() == Player.MACHINE;
+        double bestValue = maximizing ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+        for (int i = 0; i < node.getPitsPerPlayer(); i++) {
+            if (node.getSeeds(node.pitOfCurrentPlayer(i)) == 0) {
+                continue;
+            }
+            long move = node.applyMove(i);
+            double value = minimax(node, ply + 1, depth - 1);
+            node.undoMove(move);
+            if (maximizing ? value > bestValue : value < bestValue) {
+                bestValue = value;
+            }
+        }
+        return bestValue + node.evaluate(ply);
+    }
+}
@@ -0,0 +1,550 @@
+package kalah.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * A Monte Carlo tree search. Instead of searching all moves to a fixed
+ * depth, it plays many fast games and chooses the pit that was played most
+ * often. Each of these playouts descends the tree of the boards searched so
+ * far by the UCT rule, which weighs the average reward of a move against
+ * how rarely it was tried, adds the successors of the board it reaches and
+ * continues the game by a rollout of moves that are not kept in the tree.
+ * The reward of the machine, from 0 to 1, is then added to every board on
+ * the way.
+ *
+ * Rollouts either play random moves or, heuristically, extra turns and
+ * captures whenever there are any. A rollout that ends the game is rewarded
+ * with 1 for a machine win, 0.5 for a tie and 0 for a loss, as is one that
+ * leaves a player more than half of all seeds in her store, since the game
+ * is decided then. Otherwise, a rollout stops after {@value #ROLLOUT_MOVES}
+ * moves and is rewarded by the lead in the stores: a lead of a third of the
+ * seeds needed to win counts as a win. On large boards, long random games
+ * tell the moves apart much worse than many short ones; for the same reason,
+ * the tree is explored less than by the usual UCT constant.
+ *
+ * The search is bounded by a number of playouts, by time or both; the level
+ * of the board is not used. With several threads, every thread grows a tree
+ * of its own from the root with its share of the playouts, and the playouts
+ * of the pits are added up; threads without a share are not started. The
+ * score of a result is the average reward of the chosen pit.
+ *
+ * The trees are kept in flat arrays like a {@link NodePool}, one per thread
+ * of the engine, and reused by its next search. Every tree stops growing at
+ * {@value #MAX_NODES} boards; its leaves are then only rolled out.
+ */
+public class MonteCarloEngine implements Engine {
+    private static final double EXPLORATION = 0.3;
+    private static final int ROLLOUT_MOVES = 20;
+    private static final int CHECK_INTERVAL = 64;
+    private static final int MAX_NODES = 1 << 21;
+    private static final int INITIAL_CAPACITY = 1 << 12;
+
+    private final long playouts;
+    private final long budgetNanos;
+    private final boolean heuristic;
+    private final int threads;
+    private final ExecutorService executor;
+    private final Tree[] trees;
+
+    /**
+     * Creates a single-threaded engine with heuristic rollouts and the given
+     * time budget per move.
+     *
+     * @param budgetMillis The time in milliseconds per move.
+     * @throws IllegalArgumentException If the budget is less than 1.
+     */
+    public MonteCarloEngine(long budgetMillis) {
+        this(0, budgetMillis, true, 1);
+    }
+
+    /**
+     * Creates an engine.
+     *
+     * @param playouts The maximum number of playouts per move or 0 for no
+     *        limit.
+     * @param budgetMillis The maximum time in milliseconds per move or 0 for
+     *        no limit.
+     * @param heuristic Whether the rollouts prefer extra turns and captures
+     *        to random moves.
+     * @param threads The number of threads that search trees of their own.
+     * @throws IllegalArgumentException If a limit is negative, both are 0 or
+     *         the number of threads is less than 1.
+     */
+    public MonteCarloEngine(long playouts, long budgetMillis,
+                            boolean heuristic, int threads) {
+        if (playouts < 0 || budgetMillis < 0
+                || (playouts == 0 && budgetMillis == 0) || threads < 1) {
+            throw new IllegalArgumentException();
+        }
+        this.playouts = playouts;
+        this.budgetNanos = budgetMillis * 1_000_000;
+        this.heuristic = heuristic;
+        this.threads = threads;
+        trees = new Tree[threads];
+        for (int t = 0; t < threads; t++) {
+            trees[t] = new Tree();
+        }
+        if (threads == 1) {
+            executor = null;
+        } else {
+            executor = Executors.newFixedThreadPool(threads, runnable -> {
+                Thread thread = new Thread(runnable, "kalah-search");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int selectPit(GameBoard board, int level)
+            throws InterruptedException {
+        return selectPit(board, level, null);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int selectPit(GameBoard board, int level,
+                         SearchStatistics statistics)
+            throws InterruptedException {
+        return analyze(board, level, statistics).getPit();
+    }
+
+    /**
+     * {@inheritDoc} The principal variation follows the most played moves of
+     * the tree that played the chosen pit most often. A single legal move is
+     * played without searching.
+     */
+    @Override
+    public SearchResult analyze(GameBoard board, int level,
+                                SearchStatistics statistics)
+            throws InterruptedException {
+        int pitsPerPlayer = board.getPitsPerPlayer();
+        int[] moves = new int[pitsPerPlayer];
+        if (AlphaBetaEngine.orderMoves(board, moves, -1) == 1) {
+            return SearchResult.of(board.pitOfCurrentPlayer(moves[0]));
+        }
+        long deadline = budgetNanos == 0 ? AlphaBetaEngine.NO_DEADLINE
+                : System.nanoTime() + budgetNanos;
+        List<Tree> searched = new ArrayList<>();
+        if (executor == null) {
+            trees[0].search(board, playouts, deadline, statistics);
+            searched.add(trees[0]);
+        } else {
+            searched.addAll(searchInParallel(board, deadline, statistics));
+        }
+        long[] visits = new long[pitsPerPlayer];
+        double[] rewards = new double[pitsPerPlayer];
+        int depth = 0;
+        for (Tree tree : searched) {
+            tree.addRootChildren(visits, rewards);
+            depth = Math.max(depth, tree.maxPly);
+        }
+        int best = -1;
+        for (int i = 0; i < pitsPerPlayer; i++) {
+            if (board.getSeeds(board.pitOfCurrentPlayer(i)) > 0
+                    && (best < 0 || visits[i] > visits[best])) {
+                best = i;
+            }
+        }
+        Tree bestTree = searched.get(0);
+        for (Tree tree : searched) {
+            if (tree.getRootVisits(best) > bestTree.getRootVisits(best)) {
+                bestTree = tree;
+            }
+        }
+        if (statistics != null) {
+            statistics.setDepth(depth);
+        }
+        int[] variation = bestTree.principalVariation(best);
+        return new SearchResult(variation[0], visits[best] == 0 ? Double.NaN
+                : rewards[best] / visits[best], variation, depth);
+    }
+
+    /**
+     * Stops the threads of this engine. The engine must not be used
+     * afterwards.
+     */
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Searches a tree per thread and waits for all of them. A tree is locked
+     * while it is searched, so that the search of the next move waits for a
+     * cancelled search of the same tree to stop.
+     *
+     * @param board The board on which the machine has to move.
+     * @param deadline The value of {@link System#nanoTime()} at which the
+     *        searches stop, or {@link AlphaBetaEngine#NO_DEADLINE}.
+     * @param statistics The statistics to fill or {@code null}.
+     * @return The searched trees.
+     * @throws InterruptedException If the executing thread was interrupted.
+     */
+    private List<Tree> searchInParallel(GameBoard board, long deadline,
+                                        SearchStatistics statistics)
+            throws InterruptedException {
+        List<Future<Tree>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            long share = playouts / threads + (t < playouts % threads ? 1 : 0);
+            if (playouts > 0 && share == 0) {
+                break;
+            }
+            Tree tree = trees[t];
+            futures.add(executor.submit(() -> {
+                SearchStatistics taskStatistics = statistics == null ? null
+                        : new SearchStatistics();
+                synchronized (tree) {
+                    tree.search(board, share, deadline, taskStatistics);
+                }
+                if (taskStatistics != null) {
+                    statistics.add(taskStatistics);
+                }
+                return tree;
+            }));
+        }
+        List<Tree> searched = new ArrayList<>();
+        try {
+            for (Future<Tree> future : futures) {
+                searched.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw e;
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw new IllegalStateException(e.getCause());
+        }
+        return searched;
+    }
+
+    /**
+     * The search tree of a single thread. Each node is an index into the
+     * arrays; the children of a node are stored next to each other.
+     */
+    private final class Tree {
+        private final SplittableRandom random = new SplittableRandom();
+        private int size;
+        private int[] firstChildren = new int[INITIAL_CAPACITY];
+        private byte[] childCounts = new byte[INITIAL_CAPACITY];
+        private byte[] pits = new byte[INITIAL_CAPACITY];
+        private boolean[] machineToMove = new boolean[INITIAL_CAPACITY];
+        private int[] visits = new int[INITIAL_CAPACITY];
+        private double[] rewards = new double[INITIAL_CAPACITY];
+        private int[] path = new int[64];
+        private long[] moves = new long[256];
+        private int numOfMoves;
+        private int maxPly;
+        private GameBoard work;
+        private int decidingSeeds;
+        private int winningLead;
+        private SearchStatistics statistics;
+
+        /**
+         * Grows a new tree from a board.
+         *
+         * @param board The board on which the machine has to move.
+         * @param limit The number of playouts or 0 for no limit.
+         * @param deadline The value of {@link System#nanoTime()} at which
+         *        the search stops, or {@link AlphaBetaEngine#NO_DEADLINE}.
+         * @param statistics The statistics to fill or {@code null}.
+         * @throws InterruptedException If the executing thread was
+         *         interrupted.
+         */
+        void search(GameBoard board, long limit, long deadline,
+                    SearchStatistics statistics)
+                throws InterruptedException {
+            work = (GameBoard) board.clone();
+            decidingSeeds = board.getPitsPerPlayer() * board.getSeedsPerPit();
+            winningLead = Math.max(1, decidingSeeds / 3);
+            this.statistics = statistics;
+            size = 0;
+            maxPly = 0;
+            add(-1, true);
+            for (long n = 0; limit == 0 || n < limit; n++) {
+                if (n % CHECK_INTERVAL == 0) {
+                    if (Thread.interrupted()) {
+                        throw new InterruptedException();
+                    }
+                    if (n > 0 && deadline != AlphaBetaEngine.NO_DEADLINE
+                            && System.nanoTime() - deadline > 0) {
+                        break;
+                    }
+                }
+                playout();
+            }
+        }
+
+        /**
+         * Adds the playouts of the moves of the root to those of other
+         * trees.
+         *
+         * @param pitVisits The playouts per machine pit, counted from 0.
+         * @param pitRewards The rewards per machine pit.
+         */
+        void addRootChildren(long[] pitVisits, double[] pitRewards) {
+            for (int k = 0; k < childCounts[0]; k++) {
+                int child = firstChildren[0] + k;
+                pitVisits[pits[child]] += visits[child];
+                pitRewards[pits[child]] += rewards[child];
+            }
+        }
+
+        /**
+         * Returns the number of playouts of a move of the root.
+         *
+         * @param i The machine pit, counted from 0.
+         * @return The number of playouts.
+         */
+        int getRootVisits(int i) {
+            for (int k = 0; k < childCounts[0]; k++) {
+                int child = firstChildren[0] + k;
+                if (pits[child] == i) {
+                    return visits[child];
+                }
+            }
+            return 0;
+        }
+
+        /**
+         * Returns the line of the most played moves after a move of the
+         * root.
+         *
+         * @param i The machine pit, counted from 0.
+         * @return The pits of the line, numbered on the whole board.
+         */
+        int[] principalVariation(int i) {
+            int pitsPerPlayer = work.getPitsPerPlayer();
+            int[] variation = new int[maxPly + 1];
+            variation[0] = i + pitsPerPlayer + 1;
+            int length = 1;
+            int node = -1;
+            for (int k = 0; k < childCounts[0]; k++) {
+                if (pits[firstChildren[0] + k] == i) {
+                    node = firstChildren[0] + k;
+                }
+            }
+            while (node >= 0 && childCounts[node] > 0) {
+                int best = firstChildren[node];
+                for (int k = 1; k < childCounts[node]; k++) {
+                    if (visits[firstChildren[node] + k] > visits[best]) {
+                        best = firstChildren[node] + k;
+                    }
+                }
+                if (visits[best] == 0) {
+                    break;
+                }
+                variation[length++] = machineToMove[node]
+                        ? pits[best] + pitsPerPlayer + 1 : pits[best];
+                node = best;
+            }
+            return Arrays.copyOf(variation, length);
+        }
+
+        /**
+         * Plays a single game from the root: descends the tree, expands the
+         * reached node if it was visited before, rolls the game out and
+         * updates the nodes on the way.
+         */
+        private void playout() {
+            numOfMoves = 0;
+            int node = 0;
+            int ply = 0;
+            path[0] = node;
+            while (true) {
+                if (childCounts[node] == 0) {
+                    if (visits[node] == 0 || work.isGameOver()
+                            || size + work.getPitsPerPlayer() > MAX_NODES) {
+                        break;
+                    }
+                    expand(node);
+                }
+                node = selectChild(node);
+                push(work.applyMove(pits[node]));
+                ply++;
+                if (ply == path.length) {
+                    path = Arrays.copyOf(path, 2 * ply);
+                }
+                path[ply] = node;
+            }
+            double reward = rollout();
+            while (numOfMoves > 0) {
+                work.undoMove(moves[--numOfMoves]);
+            }
+            for (int p = 0; p <= ply; p++) {
+                visits[path[p]]++;
+                rewards[path[p]] += reward;
+            }
+            maxPly = Math.max(maxPly, ply);
+            if (statistics != null) {
+                statistics.countNode(ply);
+                statistics.countLeafEvaluation();
+            }
+        }
+
+        /**
+         * Chooses the child of a node to descend to: an unvisited one if
+         * there is any, otherwise the one with the highest upper confidence
+         * bound for the player to move.
+         *
+         * @param node An expanded node.
+         * @return The child.
+         */
+        private int selectChild(int node) {
+            int first = firstChildren[node];
+            int count = childCounts[node];
+            double logVisits = Math.log(visits[node]);
+            int best = first;
+            double bestBound = Double.NEGATIVE_INFINITY;
+            for (int child = first; child < first + count; child++) {
+                if (visits[child] == 0) {
+                    return child;
+                }
+                double mean = rewards[child] / visits[child];
+                if (!machineToMove[node]) {
+                    mean = 1 - mean;
+                }
+                double bound = mean + EXPLORATION
+                        * Math.sqrt(logVisits / visits[child]);
+                if (bound > bestBound) {
+                    bestBound = bound;
+                    best = child;
+                }
+            }
+            return best;
+        }
+
+        /**
+         * Adds the children of a node for the legal moves on the work
+         * board.
+         *
+         * @param node The node of the work board.
+         */
+        private void expand(int node) {
+            firstChildren[node] = size;
+            for (int i = 0; i < work.getPitsPerPlayer(); i++) {
+                if (work.getSeeds(work.pitOfCurrentPlayer(i)) > 0) {
+                    long move = work.applyMove(i);
+                    add(i, work.getCurrentPlayer() == Player.MACHINE);
+                    work.undoMove(move);
+                    childCounts[node]++;
+                }
+            }
+            if (statistics != null) {
+                statistics.countExpansion();
+            }
+        }
+
+        /**
+         * Plays the game on the work board until it is decided or the
+         * rollout is long enough.
+         *
+         * @return The reward of the machine.
+         */
+        private double rollout() {
+            int humanStore = work.getPitsPerPlayer();
+            int machineStore = 2 * humanStore + 1;
+            for (int k = 0; !work.isGameOver(); k++) {
+                int machine = work.getSeeds(machineStore);
+                int human = work.getSeeds(humanStore);
+                if (machine > decidingSeeds) {
+                    return 1;
+                } else if (human > decidingSeeds) {
+                    return 0;
+                } else if (k == ROLLOUT_MOVES) {
+                    double lead = (double) (machine - human) / winningLead;
+                    return Math.max(0, Math.min(1, 0.5 + 0.5 * lead));
+                }
+                push(work.applyMove(rolloutMove()));
+            }
+            int machine = work.getSeedsOfPlayer(Player.MACHINE);
+            int human = work.getSeedsOfPlayer(Player.HUMAN);
+            if (machine > human) {
+                return 1;
+            } else if (machine < human) {
+                return 0;
+            }
+            return 0.5;
+        }
+
+        /**
+         * Chooses a move of a rollout. The heuristic takes the extra turn
+         * closest to the store, then the capture closest to the store.
+         *
+         * @return The pit of the current player, counted from 0.
+         */
+        private int rolloutMove() {
+            int pitsPerPlayer = work.getPitsPerPlayer();
+            if (heuristic) {
+                int capture = -1;
+                for (int i = pitsPerPlayer - 1; i >= 0; i--) {
+                    if (work.getSeeds(work.pitOfCurrentPlayer(i)) > 0) {
+                        int kind = AlphaBetaEngine.moveKind(work, i);
+                        if (kind == AlphaBetaEngine.EXTRA_TURN) {
+                            return i;
+                        } else if (kind == AlphaBetaEngine.CAPTURE
+                                && capture < 0) {
+                            capture = i;
+                        }
+                    }
+                }
+                if (capture >= 0) {
+                    return capture;
+                }
+            }
+            int chosen = -1;
+            int legal = 0;
+            for (int i = 0; i < pitsPerPlayer; i++) {
+                if (work.getSeeds(work.pitOfCurrentPlayer(i)) > 0
+                        && random.nextInt(++legal) == 0) {
+                    chosen = i;
+                }
+            }
+            return chosen;
+        }
+
+        private void push(long move) {
+            if (numOfMoves == moves.length) {
+                moves = Arrays.copyOf(moves, 2 * numOfMoves);
+            }
+            moves[numOfMoves++] = move;
+        }
+
+        /**
+         * Appends an unvisited leaf.
+         *
+         * @param pit The move that led to the node or -1.
+         * @param machine Whether the machine has to move at the node.
+         */
+        private void add(int pit, boolean machine) {
+            if (size == visits.length) {
+                int capacity = 2 * size;
+                firstChildren = Arrays.copyOf(firstChildren, capacity);
+                childCounts = Arrays.copyOf(childCounts, capacity);
+                pits = Arrays.copyOf(pits, capacity);
+                machineToMove = Arrays.copyOf(machineToMove, capacity);
+                visits = Arrays.copyOf(visits, capacity);
+                rewards = Arrays.copyOf(rewards, capacity);
+            }
+            childCounts[size] = 0;
+            pits[size] = (byte) pit;
+            machineToMove[size] = machine;
+            visits[size] = 0;
+            rewards[size] = 0;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package kalah.model;
+
+import java.util.Arrays;
+
+/**
+ * A game tree kept in flat arrays for analysis and display. Each node is an
+ * index; its pits and stores lie at {@code node * slots} in one array of
+ * seeds, and its value, player, move and the range of its children lie at
+ * {@code node} in arrays of their own. So a tree of millions of nodes
+ * consists of a few objects only and is read without pointer chasing.
+ *
+ * The tree is built breadth-first, so the children of a node are stored
+ * next to each other, in the order of their pits, and always behind their
+ * parent. The arrays are reused by the next tree and only grow.
+ */
+public final class NodePool {
+    private static final int CHECK_INTERVAL = 1024;
+
+    private int slots;
+    private int size;
+    private short[] seeds = new short[0];
+    private double[] values;
+    private int[] firstChildren;
+    private byte[] childCounts;
+    private byte[] pits;
+    private boolean[] machineToMove;
+
+    /**
+     * Creates a pool with room for the given number of nodes.
+     *
+     * @param capacity The number of nodes to allocate in advance.
+     * @throws IllegalArgumentException If the capacity is less than 1.
+     */
+    public NodePool(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException();
+        }
+        values = new double[capacity];
+        firstChildren = new int[capacity];
+        childCounts = new byte[capacity];
+        pits = new byte[capacity];
+        machineToMove = new boolean[capacity];
+    }
+
+    /**
+     * Builds the full-width tree of a board up to the given depth and
+     * computes the value of every node as the {@link MinimaxEngine} does:
+     * its own evaluation plus the value of its best child.
+     *
+     * @param board The board at the root. It is not changed.
+     * @param level The depth of the tree, at least 0.
+     * @return The root node, i.e., 0.
+     * @throws InterruptedException If the executing thread was interrupted.
+     * @throws IllegalArgumentException If the level is negative or the board
+     *         does not fit into the pool.
+     */
+    public int build(GameBoard board, int level) throws InterruptedException {
+        int pitsPerPlayer = board.getPitsPerPlayer();
+        if (level < 0 || pitsPerPlayer > Byte.MAX_VALUE
+                || 2 * pitsPerPlayer * board.getSeedsPerPit()
+                > Short.MAX_VALUE) {
+            throw new IllegalArgumentException();
+        }
+        slots = 2 * (pitsPerPlayer + 1);
+        size = 0;
+        GameBoard work = (GameBoard) board.clone();
+        add(work, -1);
+        int levelStart = 0;
+        int levelEnd = size;
+        for (int ply = 0; levelStart < levelEnd; ply++) {
+            for (int node = levelStart; node < levelEnd; node++) {
+                if (node % CHECK_INTERVAL == 0 && Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+                load(node, work);
+                values[node] = work.evaluate(ply);
+                firstChildren[node] = size;
+                if (ply == level || work.isGameOver()) {
+                    continue;
+                }
+                for (int i = 0; i < pitsPerPlayer; i++) {
+                    if (work.getSeeds(work.pitOfCurrentPlayer(i)) > 0) {
+                        long move = work.applyMove(i);
+                        add(work, i);
+                        work.undoMove(move);
+                        childCounts[node]++;
+                    }
+                }
+            }
+            levelStart = levelEnd;
+            levelEnd = size;
+        }
+        for (int node = size - 1; node >= 0; node--) {
+            int count = childCounts[node];
+            if (count > 0) {
+                boolean maximizing = machineToMove[node];
+                double bestValue = maximizing ? Integer.MIN_VALUE
+                        : Integer.MAX_VALUE;
+                for (int k = 0; k < count; k++) {
+                    double value = values[firstChildren[node] + k];
+                    if (maximizing ? value > bestValue : value < bestValue) {
+                        bestValue = value;
+                    }
+                }
+                values[node] = bestValue + values[node];
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Returns the number of nodes of the tree.
+     *
+     * @return The number of nodes.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the value of a node.
+     *
+     * @param node The node.
+     * @return The value of the node from the machine's point of view.
+     */
+    public double getValue(int node) {
+        return values[node];
+    }
+
+    /**
+     * Returns the move that led to a node.
+     *
+     * @param node The node.
+     * @return The pit of the player who moved, counted from 0 in her
+     *         direction of play, or -1 for the root.
+     */
+    public int getPit(int node) {
+        return pits[node];
+    }
+
+    /**
+     * Returns the player who has to move on the board of a node.
+     *
+     * @param node The node.
+     * @return The current player.
+     */
+    public Player getPlayer(int node) {
+        return machineToMove[node] ? Player.MACHINE : Player.HUMAN;
+    }
+
+    /**
+     * Returns the seeds in a pit or store of the board of a node.
+     *
+     * @param node The node.
+     * @param pit The number of the pit on the board.
+     * @return The number of seeds.
+     */
+    public int getSeeds(int node, int pit) {
+        return seeds[node * slots + pit];
+    }
+
+    /**
+     * Returns the number of children of a node.
+     *
+     * @param node The node.
+     * @return The number of legal moves, 0 for a leaf.
+     */
+    public int getChildCount(int node) {
+        return childCounts[node];
+    }
+
+    /**
+     * Returns a child of a node.
+     *
+     * @param node The node.
+     * @param k The index of the child, from 0 to {@code getChildCount(node)
+     *        - 1}.
+     * @return The child.
+     */
+    public int getChild(int node, int k) {
+        return firstChildren[node] + k;
+    }
+
+    /**
+     * Returns the best child of a node for the player to move: the one with
+     * the lowest pit among the children of maximal value for the machine,
+     * of minimal value for the human.
+     *
+     * @param node A node that is no leaf.
+     * @return The best child.
+     * @throws IllegalArgumentException If the node is a leaf.
+     */
+    public int bestChild(int node) {
+        int count = childCounts[node];
+        if (count == 0) {
+            throw new IllegalArgumentException();
+        }
+        int best = firstChildren[node];
+        for (int child = best + 1; child < firstChildren[node] + count;
+                child++) {
+            if (machineToMove[node] ? values[child] > values[best]
+                    : values[child] < values[best]) {
+                best = child;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Appends a node for a board.
+     *
+     * @param board The board of the node.
+     * @param pit The move that led to the board or -1.
+     */
+    private void add(GameBoard board, int pit) {
+        if (size == values.length) {
+            int capacity = values.length * 2;
+            values = Arrays.copyOf(values, capacity);
+            firstChildren = Arrays.copyOf(firstChildren, capacity);
+            childCounts = Arrays.copyOf(childCounts, capacity);
+            pits = Arrays.copyOf(pits, capacity);
+            machineToMove = Arrays.copyOf(machineToMove, capacity);
+        }
+        if (seeds.length < values.length * slots) {
+            seeds = Arrays.copyOf(seeds, values.length * slots);
+        }
+        int offset = size * slots;
+        for (int slot = 0; slot < slots; slot++) {
+            seeds[offset + slot] = (short) board.getSeeds(slot);
+        }
+        childCounts[size] = 0;
+        pits[size] = (byte) pit;
+        machineToMove[size] = board.getCurrentPlayer() == Player.MACHINE;
+        size++;
+    }
+
+    /**
+     * Sets a board to the position of a node.
+     *
+     * @param node The node.
+     * @param board A board of the same size as the boards in the tree.
+     */
+    private void load(int node, GameBoard board) {
+        int offset = node * slots;
+        for (int slot = 0; slot < slots; slot++) {
+            if (board.getSeeds(slot) != seeds[offset + slot]) {
+                board.setSeeds(slot, seeds[offset + slot]);
+            }
+        }
+        board.setCurrentPlayer(getPlayer(node));
+    }
+}
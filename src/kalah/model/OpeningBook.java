@@ -0,0 +1,75 @@
+package kalah.model;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * The best machine moves of opening positions, found by deep searches
+ * ahead of time and stored in a {@link MappedTable}. A position is found by
+ * its {@link Zobrist} hash, so one book can hold the openings of several
+ * game configurations. Each entry holds the pit of the machine, counted
+ * from 0 in her direction of play, and the level it was searched at; a
+ * search at another level does not use it.
+ */
+public final class OpeningBook {
+
+    /**
+     * The tag of the mapped tables that hold opening books.
+     */
+    public static final long TAG = 0x4B626F6F6BL;
+
+    /**
+     * The number of value bytes per entry of an opening book.
+     */
+    public static final int VALUE_BYTES = 2;
+
+    private final MappedTable table;
+
+    private OpeningBook(MappedTable table) {
+        this.table = table;
+    }
+
+    /**
+     * Maps a book file into memory.
+     *
+     * @param file A table written with {@link #TAG} and {@link #VALUE_BYTES}.
+     * @return The book.
+     * @throws IOException If the file cannot be mapped or is no book.
+     */
+    public static OpeningBook map(Path file) throws IOException {
+        MappedTable table = MappedTable.map(file);
+        if (table.getTag() != TAG || table.getValueBytes() != VALUE_BYTES) {
+            throw new IOException("Not an opening book: " + file);
+        }
+        return new OpeningBook(table);
+    }
+
+    /**
+     * Returns the number of positions in this book.
+     *
+     * @return The number of positions.
+     */
+    public int size() {
+        return table.size();
+    }
+
+    /**
+     * Looks up the move of the machine on a board.
+     *
+     * @param board The board on which the machine has to move.
+     * @param level The level of the search the move replaces.
+     * @return The number of the machine pit to sow or -1 if the position is
+     *         not in the book or was searched at another level.
+     */
+    public int lookup(GameBoard board, int level) {
+        if (board.getCurrentPlayer() != Player.MACHINE) {
+            return -1;
+        }
+        int entry = table.find(board.getPositionKey());
+        if (entry < 0 || table.getByte(entry, 1) != level) {
+            return -1;
+        }
+        int pit = table.getByte(entry, 0) + board.getPitsPerPlayer() + 1;
+        return board.getSeeds(pit) > 0 ? pit : -1;
+    }
+}
@@ -0,0 +1,274 @@
+package kalah.model;
+
+/**
+ * A position of a board with at most {@link #MAX_PITS_PER_PLAYER} pits per
+ * player, packed into two longs. Each player owns one long that holds her
+ * pits followed by her store, eight bits per slot with the lowest bits for
+ * her first pit. The long of the human additionally holds the number of pits
+ * per player, the one of the machine whether the machine has to move. Thus,
+ * the two longs describe the position completely and can be used directly as
+ * keys in hash tables or caches.
+ *
+ * Moves are executed on the packed form: full laps of seeds are added to all
+ * slots of a player at once, the rest of the seeds to a range of slots.
+ */
+public final class PackedPosition {
+
+    /**
+     * The maximum number of pits per player that can be packed.
+     */
+    public static final int MAX_PITS_PER_PLAYER = 6;
+
+    /**
+     * The maximum number of seeds on a packable board.
+     */
+    public static final int MAX_SEEDS = 255;
+
+    private static final int BITS_PER_SLOT = 8;
+    private static final long SLOT_MASK = 0xFF;
+    private static final long ONE_PER_SLOT = 0x0001010101010101L;
+    private static final int PITS_SHIFT = 56;
+    private static final long MACHINE_TO_MOVE = 1L << 63;
+    private static final long SLOTS_MASK = (1L << PITS_SHIFT) - 1;
+
+    private long human;
+    private long machine;
+
+    /**
+     * Creates a position from its packed form.
+     *
+     * @param human The packed pits and store of the human.
+     * @param machine The packed pits and store of the machine.
+     */
+    public PackedPosition(long human, long machine) {
+        this.human = human;
+        this.machine = machine;
+    }
+
+    /**
+     * Packs the position of the given board.
+     *
+     * @param board The board to pack.
+     * @return The packed position.
+     * @throws IllegalArgumentException If the board has more than
+     *         {@link #MAX_PITS_PER_PLAYER} pits per player or more than
+     *         {@link #MAX_SEEDS} seeds.
+     */
+    public static PackedPosition of(GameBoard board) {
+        int pitsPerPlayer = board.getPitsPerPlayer();
+        if (pitsPerPlayer > MAX_PITS_PER_PLAYER
+                || board.getSeedsOfPlayer(Player.HUMAN)
+                + board.getSeedsOfPlayer(Player.MACHINE) > MAX_SEEDS) {
+            throw new IllegalArgumentException();
+        }
+        long human = (long) pitsPerPlayer << PITS_SHIFT;
+        long machine = board.getCurrentPlayer() == Player.MACHINE
+                ? MACHINE_TO_MOVE : 0;
+        for (int i = 0; i <= pitsPerPlayer; i++) {
+            human |= (long) board.getSeeds(i) << (i * BITS_PER_SLOT);
+            machine |= (long) board.getSeeds(i + pitsPerPlayer + 1)
+                    << (i * BITS_PER_SLOT);
+        }
+        return new PackedPosition(human, machine);
+    }
+
+    /**
+     * Unpacks this position into a new board.
+     *
+     * @param seedsPerPit The initial number of seeds per pit of the game.
+     * @param openingPlayer The player who opened the game.
+     * @param level The level of the new board.
+     * @return A board with the position of this instance.
+     */
+    public GameBoard toGameBoard(int seedsPerPit, Player openingPlayer,
+                                 int level) {
+        int pitsPerPlayer = getPitsPerPlayer();
+        GameBoard board = new GameBoard(pitsPerPlayer, seedsPerPit,
+                openingPlayer, level);
+        for (int i = 0; i < 2 * (pitsPerPlayer + 1); i++) {
+            board.setSeeds(i, getSeeds(i));
+        }
+        board.setCurrentPlayer(getCurrentPlayer());
+        return board;
+    }
+
+    /**
+     * Returns the packed pits and store of the human together with the number
+     * of pits per player.
+     *
+     * @return The long of the human.
+     */
+    public long getHuman() {
+        return human;
+    }
+
+    /**
+     * Returns the packed pits and store of the machine together with the
+     * player to move.
+     *
+     * @return The long of the machine.
+     */
+    public long getMachine() {
+        return machine;
+    }
+
+    /**
+     * Returns the number of pits per player.
+     *
+     * @return The number of pits per player.
+     */
+    public int getPitsPerPlayer() {
+        return (int) (human >>> PITS_SHIFT);
+    }
+
+    /**
+     * Returns the player who has to move.
+     *
+     * @return The current player.
+     */
+    public Player getCurrentPlayer() {
+        return (machine & MACHINE_TO_MOVE) != 0 ? Player.MACHINE
+                : Player.HUMAN;
+    }
+
+    /**
+     * Gets the number of seeds of the specified pit, numbered as on a
+     * {@link Board}.
+     *
+     * @param pit The number of the pit.
+     * @return The pit's content.
+     */
+    public int getSeeds(int pit) {
+        int pitsPerPlayer = getPitsPerPlayer();
+        if (pit <= pitsPerPlayer) {
+            return slot(human, pit);
+        }
+        return slot(machine, pit - pitsPerPlayer - 1);
+    }
+
+    /**
+     * Checks if the pits of one of the players are all empty.
+     *
+     * @return {@code true} if and only if the game is over.
+     */
+    public boolean isGameOver() {
+        long pitsMask = (1L << (getPitsPerPlayer() * BITS_PER_SLOT)) - 1;
+        return (human & pitsMask) == 0 || (machine & pitsMask) == 0;
+    }
+
+    /**
+     * Executes the move of the current player from her {@code i}-th pit and
+     * passes the turn on unless the last seed reached her store.
+     *
+     * @param i The non-empty pit of the current player, counted from 0 to
+     *        {@code pitsPerPlayer - 1} in her direction of play.
+     */
+    public void move(int i) {
+        boolean machineMoves = (machine & MACHINE_TO_MOVE) != 0;
+        int pitsPerPlayer = getPitsPerPlayer();
+        long own = (machineMoves ? machine : human) & SLOTS_MASK;
+        long other = (machineMoves ? human : machine) & SLOTS_MASK;
+        int seeds = slot(own, i);
+        own &= ~(SLOT_MASK << (i * BITS_PER_SLOT));
+        int lap = 2 * pitsPerPlayer + 1;
+        int laps = seeds / lap;
+        int rest = seeds % lap;
+        own += laps * range(0, pitsPerPlayer);
+        other += laps * range(0, pitsPerPlayer - 1);
+        int toStore = pitsPerPlayer - i;
+        int target;
+        if (rest == 0) {
+            target = i;
+        } else if (rest <= toStore) {
+            own += range(i + 1, i + rest);
+            target = i + rest;
+        } else if (rest <= toStore + pitsPerPlayer) {
+            own += range(i + 1, pitsPerPlayer);
+            other += range(0, rest - toStore - 1);
+            target = -1;
+        } else {
+            own += range(i + 1, pitsPerPlayer) + range(0, rest - toStore
+                    - pitsPerPlayer - 1);
+            other += range(0, pitsPerPlayer - 1);
+            target = rest - toStore - pitsPerPlayer - 1;
+        }
+        if (target >= 0 && target < pitsPerPlayer && slot(own, target) == 1) {
+            int opposite = pitsPerPlayer - 1 - target;
+            int captured = slot(other, opposite);
+            if (captured > 0) {
+                own &= ~(SLOT_MASK << (target * BITS_PER_SLOT));
+                other &= ~(SLOT_MASK << (opposite * BITS_PER_SLOT));
+                own += (long) (captured + 1)
+                        << (pitsPerPlayer * BITS_PER_SLOT);
+            }
+        }
+        boolean machineNext = machineMoves == (target == pitsPerPlayer);
+        long pits = (long) pitsPerPlayer << PITS_SHIFT;
+        long turn = machineNext ? MACHINE_TO_MOVE : 0;
+        human = (machineMoves ? other : own) | pits;
+        machine = (machineMoves ? own : other) | turn;
+    }
+
+    /**
+     * Returns a 64 bit hash of this position.
+     *
+     * @return The hash.
+     */
+    public long key() {
+        long h = human * 0x9E3779B97F4A7C15L ^ machine;
+        h = (h ^ (h >>> 33)) * 0xFF51AFD7ED558CCDL;
+        h = (h ^ (h >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return h ^ (h >>> 33);
+    }
+
+    /**
+     * Creates and returns a copy of this position.
+     *
+     * @return A copy.
+     */
+    public PackedPosition copy() {
+        return new PackedPosition(human, machine);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PackedPosition)) {
+            return false;
+        }
+        PackedPosition other = (PackedPosition) o;
+        return human == other.human && machine == other.machine;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return Long.hashCode(key());
+    }
+
+    private static int slot(long word, int slot) {
+        return (int) (word >>> (slot * BITS_PER_SLOT) & SLOT_MASK);
+    }
+
+    /**
+     * Returns a long with a one in each slot from {@code from} to {@code to}.
+     *
+     * @param from The first slot.
+     * @param to The last slot, inclusive.
+     * @return The ones or zero if the range is empty.
+     */
+    private static long range(int from, int to) {
+        if (from > to) {
+            return 0;
+        }
+        return (ONE_PER_SLOT >>> ((MAX_PITS_PER_PLAYER - to) * BITS_PER_SLOT))
+                & (ONE_PER_SLOT << (from * BITS_PER_SLOT));
+    }
+}
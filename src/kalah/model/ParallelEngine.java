@@ -0,0 +1,169 @@
+package kalah.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An alpha-beta search that splits the root among several threads. The first
+ * machine move is searched alone to get a good bound, then all other moves
+ * are searched in parallel ("young brothers wait"). Each search starts with
+ * the best value found so far by any thread.
+ *
+ * Every thread takes the next unsearched move until none is left and
+ * searches with an {@link AlphaBetaEngine} of its own, created with this
+ * engine. A move whose search fails low is worse than the best one, all
+ * others have exact values. Hence, the chosen pit, i.e., the lowest pit of
+ * maximal value, is the same as the one of the sequential search at the
+ * same depth.
+ */
+public class ParallelEngine implements Engine {
+    private final ExecutorService executor;
+    private final AlphaBetaEngine[] engines;
+
+    /**
+     * Creates an engine that uses one thread per available processor.
+     */
+    public ParallelEngine() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates an engine that uses the given number of threads.
+     *
+     * @param threads The number of threads.
+     * @throws IllegalArgumentException If the number is less than 1.
+     */
+    public ParallelEngine(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException();
+        }
+        engines = new AlphaBetaEngine[threads];
+        for (int t = 0; t < threads; t++) {
+            engines[t] = new AlphaBetaEngine();
+        }
+        executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "kalah-search");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int selectPit(GameBoard board, int level)
+            throws InterruptedException {
+        return selectPit(board, level, null);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int selectPit(GameBoard board, int level,
+                         SearchStatistics statistics)
+            throws InterruptedException {
+        return analyze(board, level, statistics).getPit();
+    }
+
+    /**
+     * {@inheritDoc} The principal variation is the one found by the thread
+     * that searched the chosen pit. An engine is locked while it searches,
+     * so that the next search waits for a cancelled one to stop.
+     */
+    @Override
+    public SearchResult analyze(GameBoard board, int level,
+                                SearchStatistics statistics)
+            throws InterruptedException {
+        int pitsPerPlayer = board.getPitsPerPlayer();
+        int[] moves = new int[pitsPerPlayer];
+        int numOfMoves = AlphaBetaEngine.orderMoves(board, moves, -1);
+        if (statistics != null) {
+            statistics.countNode(0);
+            statistics.countExpansion();
+            statistics.setDepth(level);
+        }
+        double[] values = new double[numOfMoves];
+        int[][] variations = new int[numOfMoves][];
+        AlphaBetaEngine firstEngine = engines[0];
+        synchronized (firstEngine) {
+            values[0] = firstEngine.searchMove(board, moves[0], level,
+                    Double.NEGATIVE_INFINITY, statistics);
+            variations[0] = firstEngine.getMoveVariation(
+                    board.pitOfCurrentPlayer(moves[0]));
+        }
+        AtomicLong bestValue = new AtomicLong(
+                Double.doubleToLongBits(values[0]));
+        AtomicInteger nextMove = new AtomicInteger(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < engines.length && t < numOfMoves - 1; t++) {
+            AlphaBetaEngine engine = engines[t];
+            futures.add(executor.submit(() -> {
+                SearchStatistics taskStatistics = statistics == null ? null
+                        : new SearchStatistics();
+                synchronized (engine) {
+                    for (int k = nextMove.getAndIncrement(); k < numOfMoves;
+                         k = nextMove.getAndIncrement()) {
+                        // A tie must be detected, since the pit may be lower.
+                        double alpha = Math.nextDown(
+                                Double.longBitsToDouble(bestValue.get()));
+                        double value = engine.searchMove(board, moves[k],
+                                level, alpha, taskStatistics);
+                        if (value <= alpha) {
+                            values[k] = Double.NEGATIVE_INFINITY;
+                            continue;
+                        }
+                        values[k] = value;
+                        variations[k] = engine.getMoveVariation(
+                                board.pitOfCurrentPlayer(moves[k]));
+                        bestValue.accumulateAndGet(
+                                Double.doubleToLongBits(value),
+                                (a, b) -> Double.longBitsToDouble(a)
+                                        >= Double.longBitsToDouble(b)
+                                        ? a : b);
+                    }
+                }
+                if (taskStatistics != null) {
+                    statistics.add(taskStatistics);
+                }
+                return null;
+            }));
+        }
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw e;
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw new IllegalStateException(e.getCause());
+        }
+        int best = 0;
+        for (int k = 1; k < numOfMoves; k++) {
+            if (values[k] > values[best] || (values[k] == values[best]
+                    && moves[k] < moves[best])) {
+                best = k;
+            }
+        }
+        int[] variation = variations[best];
+        return new SearchResult(variation[0], values[best]
+                + board.evaluate(0), variation, level);
+    }
+
+    /**
+     * Stops the threads of this engine. The engine must not be used
+     * afterwards.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,112 @@
+package kalah.model;
+
+/**
+ * Counts the positions reachable by a fixed number of moves ("perft"). Every
+ * move is counted as a ply, so an extra turn earned by reaching the own store
+ * adds a ply of the same player. Positions where the game is over are not
+ * continued, hence they only count if they are reached by the last ply.
+ *
+ * The counts measure the speed of the move generation and, compared to known
+ * counts, check its correctness independently of any evaluation.
+ */
+public final class Perft {
+
+    private Perft() {
+        throw new UnsupportedOperationException("Illegal call of utility "
+                + "class constructor.");
+    }
+
+    /**
+     * Counts the positions reachable from a board by exactly {@code depth}
+     * moves.
+     *
+     * @param board The board to start from. It is not changed.
+     * @param depth The number of moves, must be at least 0.
+     * @return The number of move sequences of the given length.
+     */
+    public static long perft(GameBoard board, int depth) {
+        if (depth < 0) {
+            throw new IllegalArgumentException();
+        }
+        return count((GameBoard) board.clone(), depth);
+    }
+
+    /**
+     * Counts the positions reachable from a packed position by exactly
+     * {@code depth} moves. Gives the same counts as
+     * {@link #perft(GameBoard, int)}.
+     *
+     * @param position The position to start from. It is not changed.
+     * @param depth The number of moves, must be at least 0.
+     * @return The number of move sequences of the given length.
+     */
+    public static long perft(PackedPosition position, int depth) {
+        if (depth < 0) {
+            throw new IllegalArgumentException();
+        }
+        if (depth == 0) {
+            return 1;
+        }
+        if (position.isGameOver()) {
+            return 0;
+        }
+        int pitsPerPlayer = position.getPitsPerPlayer();
+        int offset = position.getCurrentPlayer() == Player.HUMAN ? 0
+                : pitsPerPlayer + 1;
+        long count = 0;
+        for (int i = 0; i < pitsPerPlayer; i++) {
+            if (position.getSeeds(offset + i) > 0) {
+                PackedPosition child = position.copy();
+                child.move(i);
+                count += perft(child, depth - 1);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Counts the positions reachable after each move of the current player
+     * by {@code depth - 1} further moves.
+     *
+     * @param board The board to start from. It is not changed.
+     * @param depth The number of moves, must be at least 1.
+     * @return The counts per pit of the current player, counted from 0. Empty
+     *         pits have the count 0.
+     */
+    public static long[] divide(GameBoard board, int depth) {
+        if (depth < 1) {
+            throw new IllegalArgumentException();
+        }
+        GameBoard work = (GameBoard) board.clone();
+        long[] counts = new long[work.getPitsPerPlayer()];
+        if (work.isGameOver()) {
+            return counts;
+        }
+        for (int i = 0; i < counts.length; i++) {
+            if (work.getSeeds(work.pitOfCurrentPlayer(i)) > 0) {
+                long move = work.applyMove(i);
+                counts[i] = count(work, depth - 1);
+                work.undoMove(move);
+            }
+        }
+        return counts;
+    }
+
+    private static long count(GameBoard board, int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+        if (board.isGameOver()) {
+            return 0;
+        }
+        long count = 0;
+        for (int i = 0; i < board.getPitsPerPlayer(); i++) {
+            if (board.getSeeds(board.pitOfCurrentPlayer(i)) > 0) {
+                long move = board.applyMove(i);
+                count += count(board, depth - 1);
+                board.undoMove(move);
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,195 @@
+package kalah.model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Searches on the human's time. While the human is thinking, a
+ * {@link Pondering} searches the machine reply to each of her possible
+ * moves, at most {@code pitsPerPlayer} of them; the reply to the move she
+ * actually plays is then answered without searching again. All other
+ * positions are left to another engine.
+ *
+ * The engine is not thread-safe: the pondering and the searches of the
+ * machine moves must run one after the other, e.g. on a single thread.
+ */
+public class PonderingEngine implements Engine {
+    private final Engine engine;
+    private final Map<Long, SearchResult> replies = new HashMap<>();
+    private int ponderedLevel;
+
+    /**
+     * Creates an engine that ponders with the given engine.
+     *
+     * @param engine The engine that searches the replies.
+     * @throws IllegalArgumentException If the engine is {@code null}.
+     */
+    public PonderingEngine(Engine engine) {
+        if (engine == null) {
+            throw new IllegalArgumentException();
+        }
+        this.engine = engine;
+    }
+
+    /**
+     * Prepares the pondering on a board with the human to move. The replies
+     * found by former ponderings are dropped when it runs.
+     *
+     * @param board The board on which the human has to move. It is copied.
+     * @param level The level of the replies.
+     * @return The pondering, to be run in the background.
+     * @throws IllegalArgumentException If it is not the human's turn.
+     */
+    public Pondering ponder(GameBoard board, int level) {
+        if (board.isGameOver() || board.getCurrentPlayer() != Player.HUMAN) {
+            throw new IllegalArgumentException();
+        }
+        return new Pondering((GameBoard) board.clone(), level);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int selectPit(GameBoard board, int level)
+            throws InterruptedException {
+        return selectPit(board, level, null);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int selectPit(GameBoard board, int level,
+                         SearchStatistics statistics)
+            throws InterruptedException {
+        return analyze(board, level, statistics).getPit();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public SearchResult analyze(GameBoard board, int level,
+                                SearchStatistics statistics)
+            throws InterruptedException {
+        if (level == ponderedLevel) {
+            SearchResult reply = replies.get(board.getPositionKey());
+            if (reply != null) {
+                if (statistics != null) {
+                    statistics.countCacheHit();
+                }
+                return reply;
+            }
+        }
+        return engine.analyze(board, level, statistics);
+    }
+
+    /**
+     * The search of the machine replies to all moves of the human on a
+     * board. Once the human has {@linkplain #play(GameBoard) played}, only
+     * the reply to her move is still searched, or finished if it is being
+     * searched already.
+     */
+    public final class Pondering implements Runnable {
+        private final GameBoard board;
+        private final int level;
+        private Thread searcher;
+        private long searchedKey;
+        private boolean played;
+        private boolean replyNeeded;
+        private long playedKey;
+
+        private Pondering(GameBoard board, int level) {
+            this.board = board;
+            this.level = level;
+        }
+
+        /**
+         * Searches the replies. If the executing thread is interrupted
+         * before the human has played, the pondering stops with the
+         * interrupt status set.
+         */
+        @Override
+        public void run() {
+            replies.clear();
+            ponderedLevel = level;
+            try {
+                for (int i = 0; i < board.getPitsPerPlayer(); i++) {
+                    if (board.getSeeds(i) > 0 && !searchReply(i)) {
+                        return;
+                    }
+                }
+            } finally {
+                synchronized (this) {
+                    searcher = null;
+                    if (played) {
+                        // Drops an interrupt that came too late to matter.
+                        Thread.interrupted();
+                    }
+                }
+            }
+        }
+
+        /**
+         * Tells the pondering which move the human has played, so it stops
+         * searching the replies to all others at once.
+         *
+         * @param next The board after the move of the human.
+         */
+        public synchronized void play(GameBoard next) {
+            played = true;
+            replyNeeded = !next.isGameOver()
+                    && next.getCurrentPlayer() == Player.MACHINE;
+            if (replyNeeded) {
+                playedKey = next.getPositionKey();
+            }
+            if (searcher != null && (!replyNeeded
+                    || searchedKey != playedKey)) {
+                searcher.interrupt();
+            }
+        }
+
+        /**
+         * Searches the reply to a human move if it is still of interest.
+         *
+         * @param i The pit of the human.
+         * @return {@code false} if the pondering was interrupted.
+         */
+        private boolean searchReply(int i) {
+            GameBoard child = (GameBoard) board.clone();
+            child.applyMove(i);
+            if (child.isGameOver()
+                    || child.getCurrentPlayer() != Player.MACHINE) {
+                return true;
+            }
+            long key = child.getPositionKey();
+            synchronized (this) {
+                if (played && (!replyNeeded || key != playedKey)) {
+                    return true;
+                } else if (played) {
+                    // Drops the interrupt meant for the former search.
+                    Thread.interrupted();
+                }
+                searcher = Thread.currentThread();
+                searchedKey = key;
+            }
+            try {
+                replies.put(key, engine.analyze(child, level, null));
+                return true;
+            } catch (InterruptedException e) {
+                synchronized (this) {
+                    if (!played) {
+                        Thread.currentThread().interrupt();
+                        return false;
+                    }
+                }
+                return true;
+            } finally {
+                synchronized (this) {
+                    searcher = null;
+                }
+            }
+        }
+    }
+}
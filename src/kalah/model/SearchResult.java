@@ -0,0 +1,112 @@
+package kalah.model;
+
+import java.util.Locale;
+
+/**
+ * The outcome of the search of a machine move: the chosen pit, the value of
+ * the position, the principal variation, i.e., the line of best moves of
+ * both players the value is based on, and the depth searched.
+ *
+ * The pits are numbered on the whole board like {@link
+ * Board#sourcePitOfLastMove()}. Engines that know no more than the chosen
+ * pit report a variation of this pit alone, no score and depth 0.
+ */
+public final class SearchResult {
+    private final int pit;
+    private final double score;
+    private final int[] principalVariation;
+    private final int depth;
+
+    /**
+     * Creates a result.
+     *
+     * @param pit The chosen machine pit.
+     * @param score The value of the position from the machine's point of
+     *        view or {@link Double#NaN} if it is unknown.
+     * @param principalVariation The pits of the best line, starting with the
+     *        chosen pit. It is copied.
+     * @param depth The depth searched or 0 if it is unknown.
+     * @throws IllegalArgumentException If the variation does not start with
+     *         the chosen pit.
+     */
+    public SearchResult(int pit, double score, int[] principalVariation,
+                        int depth) {
+        if (principalVariation.length == 0 || principalVariation[0] != pit) {
+            throw new IllegalArgumentException();
+        }
+        this.pit = pit;
+        this.score = score;
+        this.principalVariation = principalVariation.clone();
+        this.depth = depth;
+    }
+
+    /**
+     * Creates the result of an engine that only chose a pit.
+     *
+     * @param pit The chosen machine pit.
+     * @return The result without score and depth.
+     */
+    public static SearchResult of(int pit) {
+        return new SearchResult(pit, Double.NaN, new int[] {pit}, 0);
+    }
+
+    /**
+     * Returns the chosen machine pit.
+     *
+     * @return The number of the pit on the board.
+     */
+    public int getPit() {
+        return pit;
+    }
+
+    /**
+     * Returns the value of the searched position.
+     *
+     * @return The value from the machine's point of view or
+     *         {@link Double#NaN} if it is unknown.
+     */
+    public double getScore() {
+        return score;
+    }
+
+    /**
+     * Returns the principal variation. It may end before the searched depth
+     * where the game ends or a stored result was reused.
+     *
+     * @return The pits of the best line, starting with the chosen pit.
+     */
+    public int[] getPrincipalVariation() {
+        return principalVariation.clone();
+    }
+
+    /**
+     * Returns the depth of the search.
+     *
+     * @return The depth or 0 if it is unknown.
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Returns the result with the pits counted from 1, e.g.
+     * {@code pit 9, score 12.50, depth 6, line 9 3 10}.
+     *
+     * @return The result as text.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("pit ").append(pit + 1);
+        if (!Double.isNaN(score)) {
+            sb.append(String.format(Locale.ROOT, ", score %.2f", score));
+        }
+        if (depth > 0) {
+            sb.append(", depth ").append(depth);
+        }
+        sb.append(", line");
+        for (int p : principalVariation) {
+            sb.append(' ').append(p + 1);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,236 @@
+package kalah.model;
+
+import java.util.Locale;
+
+/**
+ * Counters of a single machine search. Engines only fill them if statistics
+ * are enabled on the board, see {@link Board#setStatisticsEnabled(boolean)}.
+ */
+public class SearchStatistics {
+    private long nodes;
+    private long expandedNodes;
+    private long leafEvaluations;
+    private long cutoffs;
+    private long firstMoveCutoffs;
+    private long cacheHits;
+    private int maxPly;
+    private int depth;
+    private long elapsedNanos;
+
+    /**
+     * Counts a visited board.
+     *
+     * @param ply The distance of the board to the root.
+     */
+    void countNode(int ply) {
+        nodes++;
+        if (ply > maxPly) {
+            maxPly = ply;
+        }
+    }
+
+    /**
+     * Counts a board whose successors are searched.
+     */
+    void countExpansion() {
+        expandedNodes++;
+    }
+
+    /**
+     * Counts a board that is evaluated without searching its successors.
+     */
+    void countLeafEvaluation() {
+        leafEvaluations++;
+    }
+
+    /**
+     * Counts a board whose remaining successors are skipped.
+     */
+    void countCutoff() {
+        cutoffs++;
+    }
+
+    /**
+     * Counts a board whose remaining successors are skipped after its first
+     * successor.
+     */
+    void countFirstMoveCutoff() {
+        firstMoveCutoffs++;
+    }
+
+    /**
+     * Counts a board whose value is taken from a cache.
+     */
+    void countCacheHit() {
+        cacheHits++;
+    }
+
+    /**
+     * Sets the depth of the search.
+     *
+     * @param depth The depth of the deepest completed search.
+     */
+    void setDepth(int depth) {
+        this.depth = depth;
+    }
+
+    /**
+     * Sets the duration of the search.
+     *
+     * @param elapsedNanos The duration in nanoseconds.
+     */
+    void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Adds the counters of another search, e.g., of another thread.
+     *
+     * @param other The statistics to add.
+     */
+    synchronized void add(SearchStatistics other) {
+        nodes += other.nodes;
+        expandedNodes += other.expandedNodes;
+        leafEvaluations += other.leafEvaluations;
+        cutoffs += other.cutoffs;
+        firstMoveCutoffs += other.firstMoveCutoffs;
+        cacheHits += other.cacheHits;
+        maxPly = Math.max(maxPly, other.maxPly);
+    }
+
+    /**
+     * Returns the number of visited boards, including the root.
+     *
+     * @return The number of nodes.
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Returns the number of boards whose successors were searched.
+     *
+     * @return The number of expanded nodes.
+     */
+    public long getExpandedNodes() {
+        return expandedNodes;
+    }
+
+    /**
+     * Returns the number of boards evaluated without searching their
+     * successors, i.e., at the maximum depth or with the game over.
+     *
+     * @return The number of leaf evaluations.
+     */
+    public long getLeafEvaluations() {
+        return leafEvaluations;
+    }
+
+    /**
+     * Returns the number of boards whose remaining successors were skipped
+     * since they could not change the result.
+     *
+     * @return The number of cutoffs.
+     */
+    public long getCutoffs() {
+        return cutoffs;
+    }
+
+    /**
+     * Returns the number of cutoffs caused by the first searched successor.
+     *
+     * @return The number of first-move cutoffs.
+     */
+    public long getFirstMoveCutoffs() {
+        return firstMoveCutoffs;
+    }
+
+    /**
+     * Returns the share of the cutoffs caused by the first searched
+     * successor. The closer it is to 1, the better the moves are ordered.
+     *
+     * @return The first-move cutoff rate or 0 if there was no cutoff.
+     */
+    public double getFirstMoveCutoffRate() {
+        if (cutoffs == 0) {
+            return 0;
+        }
+        return (double) firstMoveCutoffs / cutoffs;
+    }
+
+    /**
+     * Returns the number of boards whose value was taken from a cache, e.g.,
+     * a transposition table.
+     *
+     * @return The number of cache hits.
+     */
+    public long getCacheHits() {
+        return cacheHits;
+    }
+
+    /**
+     * Returns the largest distance of a visited board to the root.
+     *
+     * @return The maximum ply.
+     */
+    public int getMaxDepth() {
+        return maxPly;
+    }
+
+    /**
+     * Returns the depth of the search. For a search bounded by time, this is
+     * the depth of its deepest completed iteration.
+     *
+     * @return The search depth.
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Returns the duration of the search.
+     *
+     * @return The duration in nanoseconds.
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Returns the average number of searched successors per expanded board.
+     *
+     * @return The branching factor or 0 if no board was expanded.
+     */
+    public double getBranchingFactor() {
+        if (expandedNodes == 0) {
+            return 0;
+        }
+        return (double) (nodes - 1) / expandedNodes;
+    }
+
+    /**
+     * Returns the visited boards per second.
+     *
+     * @return The nodes per second or 0 if no time was measured.
+     */
+    public double getNodesPerSecond() {
+        if (elapsedNanos == 0) {
+            return 0;
+        }
+        return nodes * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "depth %d (max %d), %d nodes, "
+                        + "%d leaves, %d cutoffs (%.1f%% on first move), %d "
+                        + "cache hits, branching %.2f, %.1f ms, %.0f nodes/s",
+                depth, maxPly, nodes, leafEvaluations, cutoffs,
+                100 * getFirstMoveCutoffRate(), cacheHits,
+                getBranchingFactor(), elapsedNanos / 1e6,
+                getNodesPerSecond());
+    }
+}
@@ -0,0 +1,397 @@
+package kalah.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * The exact values of all endgames with at most {@link #getMaxSeeds()} seeds
+ * left in the pits of a board with a given number of pits per player.
+ *
+ * The course of a game depends only on the seeds in the pits and on the
+ * player to move, the seeds in the stores never move again. Hence, a value
+ * is the margin the machine gains from the seeds still in the pits under
+ * perfect play of both players: the difference between the seeds the
+ * machine and the human collect in their stores until the game ends plus
+ * the seeds left in their pits at the end. The final margin of a game is
+ * the margin of its stores plus this value, so its sign tells whether the
+ * machine wins, draws or loses.
+ *
+ * The positions are numbered by the combinatorial rank of their pits among
+ * all pits with at most {@code maxSeeds} seeds, so a table stores one byte
+ * per position and player to move and nothing else. A table file is mapped
+ * into memory by {@link #map(Path)} and probed there without copying it onto
+ * the heap.
+ */
+public final class Tablebase {
+    private static final int MAGIC = 0x4B544231;
+    private static final int HEADER_BYTES = 12;
+
+    private final int pitsPerPlayer;
+    private final int maxSeeds;
+    private final int size;
+    private final long[][] binomials;
+    private final ByteBuffer values;
+
+    private Tablebase(int pitsPerPlayer, int maxSeeds, ByteBuffer values) {
+        this.pitsPerPlayer = pitsPerPlayer;
+        this.maxSeeds = maxSeeds;
+        binomials = binomials(maxSeeds + 2 * pitsPerPlayer + 1);
+        size = values.capacity() / 2;
+        this.values = values;
+    }
+
+    /**
+     * Solves all endgames with at most {@code maxSeeds} seeds in the pits.
+     *
+     * Every move either moves seeds into a store or sows all of them
+     * further towards the store of the moving player on her own side. Thus,
+     * the positions are solved by backward induction: by ascending number of
+     * seeds in the pits and, for an equal number, by descending distance the
+     * seeds have covered on their sides. The positions reached by a move are
+     * always solved before the position itself.
+     *
+     * @param pitsPerPlayer The number of pits per player.
+     * @param maxSeeds The maximum number of seeds in the pits, at least 0 and
+     *        at most 127.
+     * @return The solved table.
+     * @throws IllegalArgumentException If a parameter is out of range or the
+     *         table would have more than {@link Integer#MAX_VALUE} entries.
+     */
+    public static Tablebase generate(int pitsPerPlayer, int maxSeeds) {
+        checkSize(pitsPerPlayer, maxSeeds);
+        int pits = 2 * pitsPerPlayer;
+        Tablebase table = new Tablebase(pitsPerPlayer, maxSeeds,
+                ByteBuffer.allocate((int) (2 * size(pitsPerPlayer,
+                        maxSeeds))));
+        int maxDistance = maxSeeds * (pitsPerPlayer - 1);
+        long[] order = new long[table.size];
+        int[] seeds = new int[pits];
+        int total = 0;
+        for (int rank = 0; rank < table.size; rank++) {
+            int distance = 0;
+            for (int i = 0; i < pits; i++) {
+                distance += seeds[i] * (i % pitsPerPlayer);
+            }
+            order[rank] = (long) (total * (maxDistance + 1) + maxDistance
+                    - distance) << Integer.SIZE | rank;
+            total = nextPits(seeds, total, maxSeeds);
+        }
+        Arrays.sort(order);
+        GameBoard board = new GameBoard(pitsPerPlayer, 1, Player.HUMAN, 1);
+        for (long entry : order) {
+            int rank = (int) entry;
+            table.unrank(rank, seeds);
+            for (int i = 0; i < pits; i++) {
+                board.setSeeds(table.slotOfPit(i), seeds[i]);
+            }
+            table.values.put(rank, (byte) table.solve(board, Player.HUMAN));
+            table.values.put(table.size + rank,
+                    (byte) table.solve(board, Player.MACHINE));
+        }
+        return table;
+    }
+
+    /**
+     * Maps a table written by {@link #write(Path)} into memory.
+     *
+     * @param file The file to map.
+     * @return The table.
+     * @throws IOException If the file cannot be mapped or is no table.
+     */
+    public static Tablebase map(Path file) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                    channel.size());
+        }
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a tablebase: " + file);
+        }
+        int pitsPerPlayer = buffer.getInt(4);
+        int maxSeeds = buffer.getInt(8);
+        try {
+            checkSize(pitsPerPlayer, maxSeeds);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Corrupt tablebase: " + file, e);
+        }
+        if (buffer.capacity() - HEADER_BYTES
+                != 2 * size(pitsPerPlayer, maxSeeds)) {
+            throw new IOException("Corrupt tablebase: " + file);
+        }
+        buffer.position(HEADER_BYTES);
+        return new Tablebase(pitsPerPlayer, maxSeeds, buffer.slice());
+    }
+
+    /**
+     * Writes this table: a magic number, the pits per player and the
+     * maximum number of seeds as big-endian ints, followed by one signed
+     * byte per position with the human to move and then one with the
+     * machine to move, each in the order of their ranks.
+     *
+     * @param file The file to write.
+     * @throws IOException If the file cannot be written.
+     */
+    public void write(Path file) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(MAGIC).putInt(pitsPerPlayer).putInt(maxSeeds).flip();
+        ByteBuffer content = values.duplicate();
+        content.clear();
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (header.hasRemaining() || content.hasRemaining()) {
+                channel.write(new ByteBuffer[] {header, content});
+            }
+        }
+    }
+
+    /**
+     * Returns the number of pits per player of the boards in this table.
+     *
+     * @return The pits per player.
+     */
+    public int getPitsPerPlayer() {
+        return pitsPerPlayer;
+    }
+
+    /**
+     * Returns the maximum number of seeds in the pits of the boards in this
+     * table.
+     *
+     * @return The maximum number of seeds.
+     */
+    public int getMaxSeeds() {
+        return maxSeeds;
+    }
+
+    /**
+     * Returns whether the position of a board is in this table.
+     *
+     * @param board The board to look up.
+     * @return {@code true} if the board has the pits per player of this
+     *         table and at most {@link #getMaxSeeds()} seeds in its pits.
+     */
+    public boolean contains(Board board) {
+        if (board.getPitsPerPlayer() != pitsPerPlayer) {
+            return false;
+        }
+        int seeds = board.getSeedsOfPlayer(Player.HUMAN)
+                + board.getSeedsOfPlayer(Player.MACHINE)
+                - board.getSeeds(pitsPerPlayer)
+                - board.getSeeds(2 * pitsPerPlayer + 1);
+        return seeds <= maxSeeds;
+    }
+
+    /**
+     * Returns the margin the machine gains from the seeds in the pits of a
+     * board under perfect play, as described above.
+     *
+     * @param board The board to look up, the player to move is taken into
+     *        account.
+     * @return The margin of the machine.
+     * @throws IllegalArgumentException If the board is not in this table.
+     */
+    public int probe(GameBoard board) {
+        if (!contains(board)) {
+            throw new IllegalArgumentException();
+        }
+        return value(board, board.getCurrentPlayer());
+    }
+
+    /**
+     * Chooses the move of the current player of a board that is best under
+     * perfect play. Of several best moves, the first one is chosen.
+     *
+     * @param board The board to look up. It is not changed.
+     * @return The number of the chosen pit of the current player.
+     * @throws IllegalArgumentException If the board is not in this table or
+     *         the game is over.
+     */
+    public int bestPit(GameBoard board) {
+        if (!contains(board) || board.isGameOver()) {
+            throw new IllegalArgumentException();
+        }
+        GameBoard work = (GameBoard) board.clone();
+        boolean machine = work.getCurrentPlayer() == Player.MACHINE;
+        int bestPit = -1;
+        int bestValue = 0;
+        for (int i = 0; i < pitsPerPlayer; i++) {
+            if (work.getSeeds(work.pitOfCurrentPlayer(i)) == 0) {
+                continue;
+            }
+            int value = moveValue(work, i);
+            if (bestPit == -1
+                    || (machine ? value > bestValue : value < bestValue)) {
+                bestPit = work.pitOfCurrentPlayer(i);
+                bestValue = value;
+            }
+        }
+        return bestPit;
+    }
+
+    /**
+     * Computes the value of a position whose successors are solved already.
+     *
+     * @param board The board holding the pits of the position and empty
+     *        stores.
+     * @param player The player to move.
+     * @return The value of the position.
+     */
+    private int solve(GameBoard board, Player player) {
+        board.setCurrentPlayer(player);
+        if (board.isGameOver()) {
+            return board.getSeedsOfPlayer(Player.MACHINE)
+                    - board.getSeedsOfPlayer(Player.HUMAN);
+        }
+        boolean machine = player == Player.MACHINE;
+        int best = machine ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+        for (int i = 0; i < pitsPerPlayer; i++) {
+            if (board.getSeeds(board.pitOfCurrentPlayer(i)) > 0) {
+                int value = moveValue(board, i);
+                best = machine ? Math.max(best, value) : Math.min(best, value);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns the margin of the machine after a move: the seeds it brings
+     * into the stores plus the value of the reached position.
+     *
+     * @param board The board to move on. It is restored afterwards.
+     * @param i The pit of the current player, counted from 0.
+     * @return The value of the move.
+     */
+    private int moveValue(GameBoard board, int i) {
+        int humanStore = board.getSeeds(pitsPerPlayer);
+        int machineStore = board.getSeeds(2 * pitsPerPlayer + 1);
+        long move = board.applyMove(i);
+        int value = board.getSeeds(2 * pitsPerPlayer + 1) - machineStore
+                - board.getSeeds(pitsPerPlayer) + humanStore
+                + value(board, board.getCurrentPlayer());
+        board.undoMove(move);
+        return value;
+    }
+
+    private int value(GameBoard board, Player player) {
+        return values.get((player == Player.MACHINE ? size : 0) + rank(board));
+    }
+
+    /**
+     * Returns the rank of the pits of a board: the number of pits with at
+     * most {@code maxSeeds} seeds that come first in lexicographic order.
+     *
+     * @param board The board to rank.
+     * @return The rank.
+     */
+    private int rank(GameBoard board) {
+        int pits = 2 * pitsPerPlayer;
+        long rank = 0;
+        int left = maxSeeds;
+        for (int i = 0; i < pits; i++) {
+            int seeds = board.getSeeds(slotOfPit(i));
+            int rest = pits - 1 - i;
+            rank += binomials[left + rest + 1][rest + 1]
+                    - binomials[left - seeds + rest + 1][rest + 1];
+            left -= seeds;
+        }
+        return (int) rank;
+    }
+
+    /**
+     * Computes the pits of a rank.
+     *
+     * @param rank The rank to decode.
+     * @param seeds Receives the seeds per pit, the pits of the human first.
+     */
+    private void unrank(int rank, int[] seeds) {
+        int pits = seeds.length;
+        long left = rank;
+        int budget = maxSeeds;
+        for (int i = 0; i < pits; i++) {
+            int rest = pits - 1 - i;
+            int value = 0;
+            long completions = binomials[budget + rest][rest];
+            while (left >= completions) {
+                left -= completions;
+                value++;
+                completions = binomials[budget - value + rest][rest];
+            }
+            seeds[i] = value;
+            budget -= value;
+        }
+    }
+
+    /**
+     * Steps to the pits of the next rank.
+     *
+     * @param seeds The seeds per pit, changed in place.
+     * @param total The sum of the seeds.
+     * @param maxSeeds The maximum sum.
+     * @return The new sum of the seeds.
+     */
+    private static int nextPits(int[] seeds, int total, int maxSeeds) {
+        int last = seeds.length - 1;
+        if (total < maxSeeds) {
+            seeds[last]++;
+            return total + 1;
+        }
+        int i = last;
+        while (i > 0 && seeds[i] == 0) {
+            i--;
+        }
+        if (i == 0) {
+            return total;
+        }
+        total -= seeds[i] - 1;
+        seeds[i] = 0;
+        seeds[i - 1]++;
+        return total;
+    }
+
+    private int slotOfPit(int i) {
+        return i < pitsPerPlayer ? i : i + 1;
+    }
+
+    private static void checkSize(int pitsPerPlayer, int maxSeeds) {
+        if (pitsPerPlayer < 1 || maxSeeds < 0 || maxSeeds > Byte.MAX_VALUE
+                || size(pitsPerPlayer, maxSeeds) > Integer.MAX_VALUE / 2) {
+            throw new IllegalArgumentException();
+        }
+    }
+
+    /**
+     * Returns the number of pits with at most {@code maxSeeds} seeds.
+     *
+     * @param pitsPerPlayer The number of pits per player.
+     * @param maxSeeds The maximum number of seeds.
+     * @return The number of positions per player to move.
+     */
+    private static long size(int pitsPerPlayer, int maxSeeds) {
+        int pits = 2 * pitsPerPlayer;
+        return binomials(maxSeeds + pits + 1)[maxSeeds + pits][pits];
+    }
+
+    /**
+     * Computes Pascal's triangle, saturated at {@link Long#MAX_VALUE}.
+     *
+     * @param rows The number of rows.
+     * @return The binomial coefficients, indexed by n and k.
+     */
+    private static long[][] binomials(int rows) {
+        long[][] binomials = new long[rows][rows];
+        for (int n = 0; n < rows; n++) {
+            binomials[n][0] = 1;
+            for (int k = 1; k <= n; k++) {
+                long sum = binomials[n - 1][k - 1] + binomials[n - 1][k];
+                binomials[n][k] = sum < 0 ? Long.MAX_VALUE : sum;
+            }
+        }
+        return binomials;
+    }
+}
@@ -0,0 +1,100 @@
+package kalah.model;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+
+/**
+ * Plays perfectly once the position is in an endgame {@link Tablebase} and
+ * leaves all other positions to another engine.
+ */
+public class TablebaseEngine implements Engine {
+
+    /**
+     * The system property naming the tablebase files the view, the shell
+     * and the server play with, separated by {@link File#pathSeparator},
+     * e.g., {@code -Dkalah.tablebase=kalah-6-10.tb}.
+     */
+    public static final String TABLEBASE_PROPERTY = "kalah.tablebase";
+
+    private final Tablebase tablebase;
+    private final Engine engine;
+
+    /**
+     * Creates an engine that looks up positions in the given table.
+     *
+     * @param tablebase The solved endgames.
+     * @param engine The engine that chooses the moves in positions that are
+     *        not in the table.
+     * @throws IllegalArgumentException If a parameter is {@code null}.
+     */
+    public TablebaseEngine(Tablebase tablebase, Engine engine) {
+        if (tablebase == null || engine == null) {
+            throw new IllegalArgumentException();
+        }
+        this.tablebase = tablebase;
+        this.engine = engine;
+    }
+
+    /**
+     * Puts the tablebases named by the system property
+     * {@value #TABLEBASE_PROPERTY} in front of an engine, if the property is
+     * set. Every file holds the endgames of one number of pits per player.
+     *
+     * @param engine The engine that chooses the moves not in the tables.
+     * @return The engine with the tables or the given engine.
+     * @throws UncheckedIOException If a table cannot be mapped.
+     */
+    public static Engine withOptionalTablebase(Engine engine) {
+        String files = System.getProperty(TABLEBASE_PROPERTY);
+        if (files == null) {
+            return engine;
+        }
+        Engine result = engine;
+        try {
+            for (String file : files.split(File.pathSeparator)) {
+                result = new TablebaseEngine(Tablebase.map(Paths.get(file)),
+                        result);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int selectPit(GameBoard board, int level)
+            throws InterruptedException {
+        return selectPit(board, level, null);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int selectPit(GameBoard board, int level,
+                         SearchStatistics statistics)
+            throws InterruptedException {
+        return analyze(board, level, statistics).getPit();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public SearchResult analyze(GameBoard board, int level,
+                                SearchStatistics statistics)
+            throws InterruptedException {
+        if (tablebase.contains(board)) {
+            if (statistics != null) {
+                statistics.countCacheHit();
+            }
+            return SearchResult.of(tablebase.bestPit(board));
+        }
+        return engine.analyze(board, level, statistics);
+    }
+}
@@ -0,0 +1,253 @@
+package kalah.model;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size hash table of search results keyed by the Zobrist hashes of
+ * the positions. For each position it remembers the value, whether that value
+ * is exact or a bound, the depth and ply it was searched with and the best
+ * pit found.
+ *
+ * The entries are organized in buckets of two. The first entry of a bucket
+ * keeps the deepest result of the current or the previous search, the second
+ * one is always replaced. Thus, the next search of an engine still finds the
+ * results of the upper plies of its last search, which hold the best pits of
+ * the positions reached since. The entries are stored in parallel arrays, so
+ * the table consists of a few objects only.
+ */
+public class TranspositionTable {
+
+    /**
+     * The default number of entries.
+     */
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    /**
+     * Flag of an entry whose value is exact.
+     */
+    static final int EXACT = 1;
+
+    /**
+     * Flag of an entry whose value is a lower bound.
+     */
+    static final int LOWER = 2;
+
+    /**
+     * Flag of an entry whose value is an upper bound.
+     */
+    static final int UPPER = 3;
+
+    private static final int BYTE_MASK = 0xFF;
+    private static final int PLY_SHIFT = 8;
+    private static final int PIT_SHIFT = 16;
+    private static final int FLAG_SHIFT = 24;
+    private static final int FLAG_MASK = 0x3;
+    private static final int GENERATION_SHIFT = 26;
+    private static final int GENERATION_MASK = 0x3F;
+
+    private final long[] keys;
+    private final double[] values;
+    private final int[] infos;
+    private final int mask;
+    private int generation;
+    private long hits;
+    private long misses;
+    private long stores;
+    private long overwrites;
+
+    /**
+     * Creates a table with {@link #DEFAULT_CAPACITY} entries.
+     */
+    public TranspositionTable() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a table with at least the given number of entries. The number
+     * is rounded up to a power of two.
+     *
+     * @param capacity The minimum number of entries.
+     * @throws IllegalArgumentException If the capacity is less than 2 or more
+     *         than 2^30.
+     */
+    public TranspositionTable(int capacity) {
+        if (capacity < 2 || capacity > 1 << 30) {
+            throw new IllegalArgumentException();
+        }
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        keys = new long[size];
+        values = new double[size];
+        infos = new int[size];
+        mask = size - 2;
+    }
+
+    /**
+     * Starts a new search. Deep entries of the search before the last one
+     * may be replaced by shallower ones from now on.
+     */
+    public void newSearch() {
+        generation = (generation + 1) & GENERATION_MASK;
+    }
+
+    /**
+     * Removes all entries and resets the counters.
+     */
+    public void clear() {
+        Arrays.fill(infos, 0);
+        hits = 0;
+        misses = 0;
+        stores = 0;
+        overwrites = 0;
+    }
+
+    /**
+     * Looks up the entry of a position.
+     *
+     * @param key The hash of the position.
+     * @return The index of the entry or -1 if there is none.
+     */
+    int probe(long key) {
+        int bucket = (int) key & mask;
+        for (int index = bucket; index < bucket + 2; index++) {
+            if (infos[index] != 0 && keys[index] == key) {
+                hits++;
+                return index;
+            }
+        }
+        misses++;
+        return -1;
+    }
+
+    /**
+     * Stores the search result of a position.
+     *
+     * @param key The hash of the position.
+     * @param value The value found.
+     * @param flag {@link #EXACT}, {@link #LOWER} or {@link #UPPER}.
+     * @param depth The remaining depth the position was searched with.
+     * @param ply The distance of the position to the root of the search.
+     * @param bestPit The best pit found or -1 if there is none.
+     */
+    void store(long key, double value, int flag, int depth, int ply,
+               int bestPit) {
+        int bucket = (int) key & mask;
+        int index = bucket;
+        if (infos[bucket] != 0 && keys[bucket] != key
+                && isRecent(bucket) && getDepth(bucket) > depth) {
+            index = bucket + 1;
+        }
+        if (infos[index] != 0 && keys[index] != key) {
+            overwrites++;
+        }
+        keys[index] = key;
+        values[index] = value;
+        infos[index] = (depth & BYTE_MASK) | (ply & BYTE_MASK) << PLY_SHIFT
+                | (bestPit & BYTE_MASK) << PIT_SHIFT | flag << FLAG_SHIFT
+                | generation << GENERATION_SHIFT;
+        stores++;
+    }
+
+    /**
+     * Returns the value of an entry.
+     *
+     * @param index The index of the entry.
+     * @return The stored value.
+     */
+    double getValue(int index) {
+        return values[index];
+    }
+
+    /**
+     * Returns the flag of an entry.
+     *
+     * @param index The index of the entry.
+     * @return {@link #EXACT}, {@link #LOWER} or {@link #UPPER}.
+     */
+    int getFlag(int index) {
+        return infos[index] >>> FLAG_SHIFT & FLAG_MASK;
+    }
+
+    /**
+     * Returns the depth of an entry.
+     *
+     * @param index The index of the entry.
+     * @return The remaining depth the position was searched with.
+     */
+    int getDepth(int index) {
+        return infos[index] & BYTE_MASK;
+    }
+
+    /**
+     * Returns the ply of an entry.
+     *
+     * @param index The index of the entry.
+     * @return The distance of the position to the root of its search.
+     */
+    int getPly(int index) {
+        return infos[index] >>> PLY_SHIFT & BYTE_MASK;
+    }
+
+    /**
+     * Returns the best pit of an entry.
+     *
+     * @param index The index of the entry.
+     * @return The best pit or -1 if there is none.
+     */
+    int getBestPit(int index) {
+        return (byte) (infos[index] >>> PIT_SHIFT);
+    }
+
+    private int generation(int index) {
+        return infos[index] >>> GENERATION_SHIFT & GENERATION_MASK;
+    }
+
+    private boolean isRecent(int index) {
+        int age = (generation - generation(index)) & GENERATION_MASK;
+        return age <= 1;
+    }
+
+    /**
+     * Returns the number of lookups that found an entry.
+     *
+     * @return The number of hits.
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of lookups that found no entry.
+     *
+     * @return The number of misses.
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Returns the number of stored results.
+     *
+     * @return The number of stores.
+     */
+    public long getStores() {
+        return stores;
+    }
+
+    /**
+     * Returns the number of entries of other positions that were replaced.
+     *
+     * @return The number of overwrites.
+     */
+    public long getOverwrites() {
+        return overwrites;
+    }
+
+    /**
+     * Returns the number of entries.
+     *
+     * @return The capacity of the table.
+     */
+    public int getCapacity() {
+        return keys.length;
+    }
+}
@@ -0,0 +1,102 @@
+package kalah.model;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Zobrist hashing of the positions of a game configuration. Every pair of pit
+ * and number of seeds in it gets a random key, and so does the machine being
+ * the player to move. The hash of a position is the exclusive or of the keys
+ * of all its pits, so a move changes it by the keys of the changed pits only.
+ *
+ * The keys are drawn from a generator seeded with the configuration, thus
+ * hashes are equal among all instances for the same configuration.
+ */
+public final class Zobrist {
+    private static final Map<Long, Zobrist> SHARED =
+            new ConcurrentHashMap<>();
+
+    private final int pitsPerPlayer;
+    private final int seedsPerPit;
+    private final long[][] keys;
+    private final long machineToMove;
+
+    /**
+     * Creates the keys for a game configuration.
+     *
+     * @param pitsPerPlayer Number of pits for each player.
+     * @param seedsPerPit Initial number of seeds in each pit.
+     */
+    public Zobrist(int pitsPerPlayer, int seedsPerPit) {
+        this.pitsPerPlayer = pitsPerPlayer;
+        this.seedsPerPit = seedsPerPit;
+        Random random = new Random(31L * pitsPerPlayer + seedsPerPit);
+        int maxSeeds = 2 * pitsPerPlayer * seedsPerPit;
+        keys = new long[2 * (pitsPerPlayer + 1)][maxSeeds + 1];
+        for (long[] pitKeys : keys) {
+            for (int seeds = 0; seeds <= maxSeeds; seeds++) {
+                pitKeys[seeds] = random.nextLong();
+            }
+        }
+        machineToMove = random.nextLong();
+    }
+
+    /**
+     * Returns the keys of a game configuration, shared by all callers.
+     *
+     * @param pitsPerPlayer Number of pits for each player.
+     * @param seedsPerPit Initial number of seeds in each pit.
+     * @return The keys.
+     */
+    public static Zobrist of(int pitsPerPlayer, int seedsPerPit) {
+        return SHARED.computeIfAbsent((long) pitsPerPlayer << Integer.SIZE
+                | seedsPerPit, k -> new Zobrist(pitsPerPlayer, seedsPerPit));
+    }
+
+    /**
+     * Checks if the keys belong to the configuration of the given board.
+     *
+     * @param board The board to check.
+     * @return {@code true} if and only if the board can be hashed.
+     */
+    public boolean fits(Board board) {
+        return board.getPitsPerPlayer() == pitsPerPlayer
+                && board.getSeedsPerPit() == seedsPerPit;
+    }
+
+    /**
+     * Computes the hash of the given board from scratch.
+     *
+     * @param board The board to hash.
+     * @return The hash of the position.
+     */
+    public long hash(GameBoard board) {
+        long hash = board.getCurrentPlayer() == Player.MACHINE
+                ? machineToMove : 0;
+        for (int pit = 0; pit < keys.length; pit++) {
+            hash ^= keys[pit][board.getSeeds(pit)];
+        }
+        return hash;
+    }
+
+    /**
+     * Returns the key of a pit holding the given number of seeds.
+     *
+     * @param pit The number of the pit.
+     * @param seeds The content of the pit.
+     * @return The key.
+     */
+    long key(int pit, int seeds) {
+        return keys[pit][seeds];
+    }
+
+    /**
+     * Returns the key that is part of the hash if the machine has to move.
+     *
+     * @return The key of the player to move.
+     */
+    long machineToMoveKey() {
+        return machineToMove;
+    }
+}
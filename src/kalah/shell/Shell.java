@@ -0,0 +1,300 @@
+package kalah.shell;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import kalah.model.AlphaBetaEngine;
+import kalah.model.Board;
+import kalah.model.BookEngine;
+import kalah.model.Engine;
+import kalah.model.GameBoard;
+import kalah.model.IllegalMoveException;
+import kalah.model.Player;
+import kalah.model.TablebaseEngine;
+
+/**
+ * Text interface of the game. It reads one command per line:
+ *
+ * <ul>
+ * <li>{@code n PITS SEEDS} starts a new game opened by the human;</li>
+ * <li>{@code s} starts a new game with the same pits and seeds, opened by
+ *     the player who did not open the current one;</li>
+ * <li>{@code m PIT} or {@code move PIT} sows the human pit {@code PIT},
+ *     counted from 1, and lets the machine answer;</li>
+ * <li>{@code l LEVEL} or {@code level LEVEL} changes the level;</li>
+ * <li>{@code p} prints the board;</li>
+ * <li>{@code quit} ends the program.</li>
+ * </ul>
+ *
+ * Without arguments the shell is interactive: it prompts with
+ * {@code kalah>} and prints errors to the standard error. Otherwise every
+ * argument is a script, {@code -} for the standard input, and the scripts
+ * are executed in order as one session without prompts. Their output,
+ * errors included, is written buffered to the standard output, so long
+ * scripts run at full speed and their transcripts can be compared.
+ *
+ * All games of a shell search with the same engine, which plays from the
+ * opening book named by the system property {@value BookEngine#BOOK_PROPERTY}
+ * and the endgame tables named by {@value TablebaseEngine#TABLEBASE_PROPERTY}
+ * if they are set.
+ */
+public final class Shell {
+    private static final String PROMPT = "kalah> ";
+
+    private final PrintWriter out;
+    private final PrintWriter err;
+    private final Engine engine = BookEngine.withOptionalBook(
+            TablebaseEngine.withOptionalTablebase(new AlphaBetaEngine()));
+    private int level = Board.DEFAULT_LEVEL;
+    private Board game = createGame(Board.DEFAULT_PITS_PER_PLAYER,
+            Board.DEFAULT_SEEDS_PER_PIT, Board.DEFAULT_OPENING_PLAYER);
+
+    /**
+     * Creates a shell with a new game of the default size.
+     *
+     * @param out The output of the commands.
+     * @param err The output of the error messages.
+     */
+    public Shell(PrintWriter out, PrintWriter err) {
+        this.out = out;
+        this.err = err;
+    }
+
+    /**
+     * Runs the shell.
+     *
+     * @param args The scripts to execute or none for an interactive shell.
+     * @throws IOException If a script cannot be read.
+     * @throws InterruptedException If the thread was interrupted during a
+     *         machine move.
+     */
+    public static void main(String[] args) throws IOException,
+            InterruptedException {
+        Charset charset = Charset.defaultCharset();
+        if (args.length == 0) {
+            Shell shell = new Shell(new PrintWriter(System.out, true),
+                    new PrintWriter(System.err, true));
+            shell.run(new BufferedReader(new InputStreamReader(System.in,
+                    charset)), true);
+            return;
+        }
+        PrintWriter out = new PrintWriter(new BufferedWriter(
+                new OutputStreamWriter(System.out, charset)));
+        try {
+            Shell shell = new Shell(out, out);
+            for (String script : args) {
+                Reader reader = script.equals("-")
+                        ? new InputStreamReader(System.in, charset)
+                        : Files.newBufferedReader(Paths.get(script), charset);
+                try (BufferedReader in = new BufferedReader(reader)) {
+                    if (!shell.run(in, false)) {
+                        return;
+                    }
+                }
+            }
+        } finally {
+            out.flush();
+        }
+    }
+
+    /**
+     * Executes the commands read until {@code quit} or the end of the input.
+     *
+     * @param in The commands, one per line.
+     * @param prompt Whether to prompt for every command.
+     * @return {@code false} if {@code quit} was read.
+     * @throws IOException If the commands cannot be read.
+     * @throws InterruptedException If the thread was interrupted during a
+     *         machine move.
+     */
+    public boolean run(BufferedReader in, boolean prompt) throws IOException,
+            InterruptedException {
+        while (true) {
+            if (prompt) {
+                out.print(PROMPT);
+                out.flush();
+            }
+            String line = in.readLine();
+            if (line == null) {
+                return true;
+            }
+            if (!execute(line)) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Executes a single command.
+     *
+     * @param line The command and its parameters.
+     * @return {@code false} if the command was {@code quit}.
+     * @throws InterruptedException If the thread was interrupted during a
+     *         machine move.
+     */
+    public boolean execute(String line) throws InterruptedException {
+        String[] words = line.trim().split("\\s+");
+        try {
+            switch (words[0]) {
+            case "":
+                throw new IllegalArgumentException("Empty Input.");
+            case "n":
+                expectWords(words, 3);
+                newGame(parse(words[1]), parse(words[2]));
+                break;
+            case "s":
+                expectWords(words, 1);
+                switchPlayer();
+                break;
+            case "m":
+            case "move":
+                expectWords(words, 2);
+                humanMove(parse(words[1]));
+                break;
+            case "l":
+            case "level":
+                expectWords(words, 2);
+                setLevel(parse(words[1]));
+                break;
+            case "p":
+                expectWords(words, 1);
+                out.println(game);
+                break;
+            case "quit":
+                expectWords(words, 1);
+                return false;
+            default:
+                throw new IllegalArgumentException("Unknown command "
+                        + words[0] + ".");
+            }
+        } catch (IllegalMoveException e) {
+            error("Game over or it is not your turn.");
+        } catch (IllegalArgumentException e) {
+            error(e.getMessage());
+        }
+        return true;
+    }
+
+    private void newGame(int pits, int seeds) {
+        if (pits < 1 || seeds < 1) {
+            throw new IllegalArgumentException("Invalid number of pits or "
+                    + "seeds.");
+        }
+        game = createGame(pits, seeds, Board.DEFAULT_OPENING_PLAYER);
+    }
+
+    private void switchPlayer() throws InterruptedException {
+        game = createGame(game.getPitsPerPlayer(), game.getSeedsPerPit(),
+                game.getOpeningPlayer().other());
+        if (game.getOpeningPlayer() == Player.MACHINE) {
+            machineMoves();
+        }
+    }
+
+    /**
+     * Creates a game at the current level that searches with the engine of
+     * this shell.
+     *
+     * @param pits Number of pits for each player.
+     * @param seeds Number of seeds in each pit.
+     * @param opener The player who starts the game.
+     * @return The new game.
+     */
+    private Board createGame(int pits, int seeds, Player opener) {
+        GameBoard board = new GameBoard(pits, seeds, opener, level);
+        board.setEngine(engine);
+        return board;
+    }
+
+    private void setLevel(int newLevel) {
+        if (newLevel < 1) {
+            throw new IllegalArgumentException("Minimum level is 1.");
+        }
+        level = newLevel;
+        game.setLevel(level);
+    }
+
+    private void humanMove(int pit) throws InterruptedException {
+        int pitsPerPlayer = game.getPitsPerPlayer();
+        if (game.isGameOver()) {
+            throw new IllegalMoveException();
+        } else if (pit < 1 || pit > pitsPerPlayer) {
+            throw new IllegalArgumentException("Invalid human pit " + pit
+                    + ". Range 1 to " + pitsPerPlayer + ".");
+        } else if (game.move(pit - 1) == null) {
+            throw new IllegalArgumentException("Invalid move. Pit " + pit
+                    + " contains no seeds.");
+        }
+        if (game.isGameOver()) {
+            printWinner();
+        } else if (game.next() == Player.HUMAN) {
+            out.println("Machine must miss a turn.");
+        } else {
+            machineMoves();
+        }
+    }
+
+    /**
+     * Lets the machine move until it is the human's turn or the game is
+     * over.
+     *
+     * @throws InterruptedException If the thread was interrupted.
+     */
+    private void machineMoves() throws InterruptedException {
+        while (true) {
+            game.machineMove();
+            out.println("Machine chose pit " + (game.sourcePitOfLastMove() + 1)
+                    + " with seeds reaching pit "
+                    + (game.targetPitOfLastMove() + 1) + ".");
+            if (game.isGameOver()) {
+                printWinner();
+                return;
+            } else if (game.next() == Player.HUMAN) {
+                return;
+            }
+            out.println("You must miss a turn.");
+        }
+    }
+
+    private void printWinner() {
+        int human = game.getSeedsOfPlayer(Player.HUMAN);
+        int machine = game.getSeedsOfPlayer(Player.MACHINE);
+        if (game.getWinner() == Player.HUMAN) {
+            out.println("Congratulations! You won with " + human
+                    + " seeds versus " + machine + " seeds of the machine.");
+        } else if (game.getWinner() == Player.MACHINE) {
+            out.println("Sorry! Machine wins with " + machine
+                    + " seeds versus your " + human + ".");
+        } else {
+            out.println("Nobody wins. Tie with " + human
+                    + " seeds for each player.");
+        }
+    }
+
+    private void error(String message) {
+        err.println("Error! " + message);
+    }
+
+    private static void expectWords(String[] words, int count) {
+        if (words.length != count) {
+            throw new IllegalArgumentException("Wrong number of arguments.");
+        }
+    }
+
+    private static int parse(String number) {
+        try {
+            return Integer.parseInt(number);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Could not parse number "
+                    + number + ".");
+        }
+    }
+}
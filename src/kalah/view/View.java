@@ -1,16 +1,24 @@
 package kalah.view;
 
+import kalah.model.AlphaBetaEngine;
 import kalah.model.Board;
+import kalah.model.BookEngine;
 import kalah.model.Player;
 import kalah.model.IllegalMoveException;
 import kalah.model.GameBoard;
+import kalah.model.PonderingEngine;
+import kalah.model.SearchResult;
+import kalah.model.TablebaseEngine;
 
 import javax.swing.JFrame;
 import javax.swing.JComboBox;
 import javax.swing.JButton;
+import javax.swing.JCheckBox;
 import javax.swing.JPanel;
 import javax.swing.JLabel;
 import javax.swing.JOptionPane;
+import javax.swing.SwingWorker;
+import javax.swing.Timer;
 
 import java.awt.Toolkit;
 import java.awt.BorderLayout;
@@ -20,7 +28,14 @@ import java.awt.event.KeyListener;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.io.Serial;
+import java.util.List;
+import java.util.Locale;
 import java.util.Stack;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.awt.Dimension;
 
 /**
@@ -31,17 +46,27 @@ public class View extends JFrame {
     /**
      * Default level in the game.
      */
-    public static final int DEFAULT_LEVEL = 3;
+    public static final int DEFAULT_LEVEL = Board.DEFAULT_LEVEL;
 
     /**
      * Default {@link Player} to start the game.
      */
-    public static final Player DEF_STARTER = Player.HUMAN;
+    public static final Player DEF_STARTER = Board.DEFAULT_OPENING_PLAYER;
     @Serial
     private static final long serialVersionUID = 278130078114038271L;
-    private final static int MAX_LEVEL = 10;
-    private final static int MAX_PITS = 12;
-    private final static int MAX_SEEDS = 12;
+
+    /**
+     * Searches the machine moves off the event dispatch thread, one search
+     * at a time, so a cancelled search has stopped before the next one uses
+     * the same engine.
+     */
+    private static final ExecutorService SEARCHES =
+            Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "kalah-search");
+                thread.setDaemon(true);
+                return thread;
+            });
+    private static final int PROGRESS_INTERVAL_MILLIS = 100;
     private final GridPanel gridPanel;
     private Board game;
     private int level = DEFAULT_LEVEL;
@@ -49,6 +74,9 @@ public class View extends JFrame {
     private JButton switchBtn;
     private JButton undoBtn;
     private JButton quitBtn;
+    private JButton stopBtn;
+    private JCheckBox ponderBox;
+    private JLabel statusLabel;
     private JComboBox<Integer> pitsPerPlayer;
     private JComboBox<Integer> seedsPerPit;
     private JComboBox<Integer> levelsCombo;
@@ -94,13 +122,18 @@ public class View extends JFrame {
         JLabel pits = new JLabel("p:");
         JLabel seeds = new JLabel("s:");
 
-        levelsCombo = new JComboBox<>(fillArray(MAX_LEVEL));
-        pitsPerPlayer = new JComboBox<>(fillArray(MAX_PITS));
-        seedsPerPit = new JComboBox<>(fillArray(MAX_SEEDS));
+        levelsCombo = new JComboBox<>(fillArray(Board.MAX_LEVEL));
+        pitsPerPlayer = new JComboBox<>(fillArray(Board.MAX_PITS_PER_PLAYER));
+        seedsPerPit = new JComboBox<>(fillArray(Board.MAX_SEEDS_PER_PIT));
         newGameBtn = new JButton("New");
         switchBtn = new JButton("Switch");
         undoBtn = new JButton("Undo");
+        stopBtn = new JButton("Stop");
         quitBtn = new JButton("Quit");
+        ponderBox = new JCheckBox("Ponder");
+        ponderBox.setFocusable(false);
+        statusLabel = new JLabel();
+        stopBtn.setEnabled(false);
         levelsCombo.setSelectedIndex(this.level - 1);
         pitsPerPlayer.setSelectedIndex(game.getPitsPerPlayer() - 1);
         seedsPerPit.setSelectedIndex(game.getSeedsPerPit() - 1);
@@ -113,7 +146,10 @@ public class View extends JFrame {
         controlRow.add(newGameBtn);
         controlRow.add(switchBtn);
         controlRow.add(undoBtn);
+        controlRow.add(stopBtn);
+        controlRow.add(ponderBox);
         controlRow.add(quitBtn);
+        controlRow.add(statusLabel);
         getContentPane().add(controlRow, BorderLayout.SOUTH);
         //setFocusable(true);
     }
@@ -193,6 +229,13 @@ public class View extends JFrame {
     public class Controller {
         private final Stack<Board> undoStack;
         private View view;
+        private final PonderingEngine engine = new PonderingEngine(
+                BookEngine.withOptionalBook(TablebaseEngine
+                        .withOptionalTablebase(new AlphaBetaEngine())));
+        private SwingWorker<Void, Board> search;
+        private Timer progressTimer;
+        private PonderingEngine.Pondering pondering;
+        private Future<?> ponderTask;
 
         /**
          * Controller to links view with game logic.
@@ -218,46 +261,186 @@ public class View extends JFrame {
             setSeedsPerPit();
             gridPanel.getField().addMouseListener(new MouseAdapterSlot());
             setUndoAction();
+            stopBtn.addActionListener(e -> stopSearch());
+            ponderBox.addActionListener(e -> {
+                if (!ponderBox.isSelected()) {
+                    cancelPondering();
+                }
+            });
             view.addKeyListener(new MyKeyListener());
+            useEngine();
         }
 
-        private void makeMachineMove() {
-            try {
+        /**
+         * Lets the machine of the current game search with the engine of
+         * this controller, which may have pondered its moves.
+         */
+        private void useEngine() {
+            if (game instanceof GameBoard) {
+                ((GameBoard) game).setEngine(engine);
+            }
+        }
 
-                game.machineMove();
-                highlightComponent(Player.MACHINE);
-                view.update();
-                if (game.isGameOver()) {
-                    updateWinMessage();
-                    resetHighlighted();
-                    return;
+        /**
+         * Starts pondering the machine replies to the possible moves of the
+         * human, if wanted. Must only be called when it is the human's turn.
+         */
+        private void startPondering() {
+            cancelPondering();
+            if (ponderBox.isSelected() && game instanceof GameBoard
+                    && !game.isGameOver()) {
+                pondering = engine.ponder((GameBoard) game, level);
+                ponderTask = SEARCHES.submit(pondering);
+            }
+        }
+
+        /**
+         * Tells the pondering the move of the human, so that it only
+         * searches the reply to this move, if it has not found it already.
+         */
+        private void playPondered() {
+            if (pondering != null) {
+                pondering.play((GameBoard) game);
+                pondering = null;
+                ponderTask = null;
+            }
+        }
+
+        private void cancelPondering() {
+            if (ponderTask != null) {
+                ponderTask.cancel(true);
+                pondering = null;
+                ponderTask = null;
+            }
+        }
+
+        /**
+         * Searches the machine moves in the background until it is the
+         * human's turn or the game is over. The search plays on a copy of the
+         * board, so that the board of the game is only replaced on the event
+         * dispatch thread, by the latest move found so far.
+         */
+        private void makeMachineMove() {
+            Board board = game.clone();
+            long start = System.nanoTime();
+            search = new SwingWorker<>() {
+                private boolean humanMissedTurn;
+
+                @Override
+                protected Void doInBackground() throws InterruptedException {
+                    do {
+                        board.machineMove();
+                        publish(board.clone());
+                    } while (!board.isGameOver()
+                            && board.next() == Player.MACHINE);
+                    return null;
                 }
-                if (game.next() == Player.MACHINE) {
-                    JOptionPane.showMessageDialog(view,
-                            "You must miss a turn");
-                    new java.util.Timer().schedule(new java.util.TimerTask() {
-                        @Override
-                        public void run() {
-                            resetHighlighted();
-                        }
-                    }, 1000);
-                    makeMachineMove();
 
+                @Override
+                protected void process(List<Board> moves) {
+                    if (isCancelled()) {
+                        return;
+                    }
+                    for (Board move : moves) {
+                        humanMissedTurn |= !move.isGameOver()
+                                && move.next() == Player.MACHINE;
+                    }
+                    showMachineMove(moves.get(moves.size() - 1));
+                }
 
-                }else {
-                    new java.util.Timer().schedule(new java.util.TimerTask() {
-                        @Override
-                        public void run() {
-                            resetHighlighted();
+                @Override
+                protected void done() {
+                    boolean current = search == this;
+                    if (current) {
+                        search = null;
+                        progressTimer.stop();
+                        SearchResult result = game.getSearchResult();
+                        statusLabel.setText(result == null ? ""
+                                : "Machine: " + result);
+                        stopBtn.setEnabled(false);
+                    }
+                    try {
+                        get();
+                        if (current && !game.isGameOver()) {
+                            startPondering();
+                            if (humanMissedTurn) {
+                                JOptionPane.showMessageDialog(view,
+                                        "You must miss a turn");
+                            }
                         }
-                    }, 1000);
+                    } catch (CancellationException e) {
+                        // Stopped by the user or replaced by another game.
+                    } catch (InterruptedException | ExecutionException e) {
+                        Toolkit.getDefaultToolkit().beep();
+                    }
                 }
+            };
+            progressTimer = new Timer(PROGRESS_INTERVAL_MILLIS, e ->
+                    statusLabel.setText(String.format(Locale.ROOT,
+                            "Machine thinks %.1f s",
+                            (System.nanoTime() - start) / 1e9)));
+            progressTimer.start();
+            stopBtn.setEnabled(!undoStack.isEmpty());
+            SEARCHES.execute(search);
+        }
 
-            } catch (IllegalMoveException e) {
-                java.awt.Toolkit.getDefaultToolkit().beep();
-            } catch (InterruptedException e) {
-                java.awt.Toolkit.getDefaultToolkit().beep();
+        /**
+         * Shows a move of the machine found by the background search. The
+         * level chosen meanwhile is kept, since the copy was made before.
+         *
+         * @param move A copy of the board right after the move.
+         */
+        private void showMachineMove(Board move) {
+            move.setLevel(level);
+            game = move;
+            highlightComponent(Player.MACHINE);
+            view.update();
+            if (game.isGameOver()) {
+                updateWinMessage();
+                resetHighlighted();
+                return;
             }
+            new java.util.Timer().schedule(new java.util.TimerTask() {
+                @Override
+                public void run() {
+                    resetHighlighted();
+                }
+            }, 1000);
+        }
+
+        /**
+         * Stops the running machine search and takes back the move of the
+         * human that started it, together with the machine moves shown so
+         * far, so that it is the human's turn again. Playing the best move
+         * found so far is not possible, since an interrupted engine throws
+         * without selecting one. The search of the opening move of the machine
+         * cannot be stopped, as there is no move to take back.
+         */
+        private void stopSearch() {
+            if (search == null || undoStack.isEmpty()) {
+                return;
+            }
+            cancelSearch();
+            game = undoStack.pop();
+            update();
+            resetHighlighted();
+            undoBtn.setEnabled(!undoStack.isEmpty());
+            startPondering();
+        }
+
+        /**
+         * Cancels the running machine search, if any, by interrupting it.
+         * The board keeps the machine moves shown so far; the result of the
+         * last search is no longer shown.
+         */
+        private void cancelSearch() {
+            if (search != null) {
+                search.cancel(true);
+                search = null;
+                progressTimer.stop();
+                stopBtn.setEnabled(false);
+            }
+            statusLabel.setText("");
         }
 
         private void resetHighlighted() {
@@ -270,6 +453,10 @@ public class View extends JFrame {
 
 
         private void makeHumanMove() {
+            if (search != null) {
+                Toolkit.getDefaultToolkit().beep();
+                return;
+            }
             undoStack.push(game.clone());
             try {
                 Board currBoard = game.move(clickedPit - 1);
@@ -281,9 +468,11 @@ public class View extends JFrame {
                 update();
                 highlightComponent(Player.HUMAN);
                 if (game.isGameOver()) {
+                    cancelPondering();
                     updateWinMessage();
                     return;
                 } else if (game.next() == Player.MACHINE) {
+                    playPondered();
                     new java.util.Timer().schedule(new java.util.TimerTask() {
                         @Override
                         public void run() {
@@ -293,6 +482,7 @@ public class View extends JFrame {
                     makeMachineMove();
 
                 } else {
+                    startPondering();
                     JOptionPane.showMessageDialog(view,
                             "Machine must miss a " + "turn.");
                     new java.util.Timer().schedule(new java.util.TimerTask() {
@@ -315,9 +505,11 @@ public class View extends JFrame {
          */
         private void setUndoAction() {
             undoBtn.addActionListener(e -> {
+                cancelSearch();
                 if (!undoStack.empty()) {
                     game = undoStack.pop();
                     update();
+                    startPondering();
                     if (undoStack.isEmpty()) {
                         undoBtn.setEnabled(false);
                     }
@@ -336,11 +528,16 @@ public class View extends JFrame {
         }
 
         private void createNewGame() {
+            cancelSearch();
+            cancelPondering();
             game = new GameBoard(game.getPitsPerPlayer(), game.getSeedsPerPit(),
                     game.getOpeningPlayer(), level);
+            useEngine();
             update();
             if (game.getOpeningPlayer() == Player.MACHINE) {
                 makeMachineMove();
+            } else {
+                startPondering();
             }
             undoStack.clear();
             undoBtn.setEnabled(false);
@@ -350,11 +547,16 @@ public class View extends JFrame {
          * Change the opening {@link Player}.
          */
         private void switchPlayer() {
+            cancelSearch();
+            cancelPondering();
             game = new GameBoard(game.getPitsPerPlayer(), game.getSeedsPerPit(),
                     game.getOpeningPlayer().other(), level);
+            useEngine();
             update();
             if (game.getOpeningPlayer() == Player.MACHINE) {
                 makeMachineMove();
+            } else {
+                startPondering();
             }
         }
 
@@ -366,6 +568,7 @@ public class View extends JFrame {
             levelsCombo.addActionListener(e -> {
                 level = (Integer) levelsCombo.getSelectedItem();
                 game.setLevel(level);
+                undoStack.forEach(board -> board.setLevel(level));
             });
         }
 
@@ -376,6 +579,8 @@ public class View extends JFrame {
         private void setPitsPerPlayerAction() {
             pitsPerPlayer.addActionListener(e -> {
                 int numOfPits = (Integer) pitsPerPlayer.getSelectedItem();
+                cancelSearch();
+                cancelPondering();
                 view.dispose();
                 game = new GameBoard(numOfPits, game.getSeedsPerPit(),
                         game.getOpeningPlayer(), level);
@@ -388,6 +593,8 @@ public class View extends JFrame {
         private void setSeedsPerPit() {
             seedsPerPit.addActionListener(e -> {
                 int numOfSeeds = (Integer) seedsPerPit.getSelectedItem();
+                cancelSearch();
+                cancelPondering();
                 view.dispose();
                 game = new GameBoard(game.getPitsPerPlayer(), numOfSeeds,
                         game.getOpeningPlayer(), level);
@@ -407,9 +614,11 @@ public class View extends JFrame {
                     //   view.dispose();
                     System.exit(0);
                 } else if (e.getKeyCode() == KeyEvent.VK_U && e.isAltDown()) {
+                    cancelSearch();
                     if (!undoStack.empty()) {
                         game = undoStack.pop();
                         update();
+                        startPondering();
                     }
                 }
             }